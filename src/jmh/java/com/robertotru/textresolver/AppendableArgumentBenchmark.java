@@ -0,0 +1,93 @@
+package com.robertotru.textresolver;
+
+import java.nio.CharBuffer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares {@link CharSequence} and {@link AppendableTo} arguments with the equivalent {@link Object#toString()}
+ * rendering. The saved allocation is best observed with the GC profiler, e.g. {@code -prof gc}.
+ */
+@State(Scope.Benchmark)
+public class AppendableArgumentBenchmark {
+
+	@Param({"16", "4096"})
+	public int length;
+
+	String template = "Payload {} for {}.";
+
+	StringBuilder stringBuilder;
+
+	CharBuffer charBuffer;
+
+	Customer customer = new Customer("John", "Snow", 42);
+
+	AppendableCustomer appendableCustomer = new AppendableCustomer("John", "Snow", 42);
+
+	@Setup
+	public void setUp() {
+		stringBuilder = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			stringBuilder.append((char) ('a' + i % 26));
+		}
+		charBuffer = CharBuffer.wrap(stringBuilder.toString().toCharArray());
+	}
+
+	@Benchmark
+	public void stringBuilderToString(Blackhole blackhole) {
+		blackhole.consume(TextResolver.resolve(template, stringBuilder.toString(), customer));
+	}
+
+	@Benchmark
+	public void stringBuilder(Blackhole blackhole) {
+		blackhole.consume(TextResolver.resolve(template, stringBuilder, customer));
+	}
+
+	@Benchmark
+	public void charBuffer(Blackhole blackhole) {
+		blackhole.consume(TextResolver.resolve(template, charBuffer, customer));
+	}
+
+	@Benchmark
+	public void appendableTo(Blackhole blackhole) {
+		blackhole.consume(TextResolver.resolve(template, stringBuilder, appendableCustomer));
+	}
+
+	static class Customer {
+		final String name;
+		final String surname;
+		final int age;
+
+		Customer(String name, String surname, int age) {
+			this.name = name;
+			this.surname = surname;
+			this.age = age;
+		}
+
+		@Override
+		public String toString() {
+			return "Customer{name=" + name + ", surname=" + surname + ", age=" + age + "}";
+		}
+	}
+
+	static final class AppendableCustomer extends Customer implements AppendableTo {
+
+		AppendableCustomer(String name, String surname, int age) {
+			super(name, surname, age);
+		}
+
+		@Override
+		public void appendTo(StringBuilder stringBuilder) {
+			stringBuilder.append("Customer{name=").append(name)
+					.append(", surname=").append(surname)
+					.append(", age=").append(age)
+					.append('}');
+		}
+	}
+
+}
@@ -0,0 +1,81 @@
+package com.robertotru.textresolver;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the native rendering of collections with the rendering through {@link Object#toString()}, which is
+ * what {@link TextResolver} did before rendering collections natively.
+ */
+@State(Scope.Benchmark)
+public class CollectionRenderingBenchmark {
+
+	@Param({"10", "10000"})
+	public int size;
+
+	String template = "Collection: {}.";
+
+	List<Integer> list;
+
+	List<List<String>> nestedList;
+
+	Map<String, List<Integer>> map;
+
+	@Setup
+	public void setUp() {
+		list = new ArrayList<>(size);
+		nestedList = new ArrayList<>();
+		map = new HashMap<>();
+		for (int i = 0; i < size; i++) {
+			list.add(i);
+		}
+		for (int i = 0; i < Math.max(1, size / 10); i++) {
+			final List<String> inner = new ArrayList<>();
+			for (int j = 0; j < 10; j++) {
+				inner.add("element-" + i + "-" + j);
+			}
+			nestedList.add(inner);
+			map.put("key-" + i, list.subList(0, Math.min(10, size)));
+		}
+	}
+
+	@Benchmark
+	public void listToString(Blackhole blackhole) {
+		blackhole.consume(TextResolver.resolve(template, list.toString()));
+	}
+
+	@Benchmark
+	public void list(Blackhole blackhole) {
+		blackhole.consume(TextResolver.resolve(template, list));
+	}
+
+	@Benchmark
+	public void nestedListToString(Blackhole blackhole) {
+		blackhole.consume(TextResolver.resolve(template, nestedList.toString()));
+	}
+
+	@Benchmark
+	public void nestedList(Blackhole blackhole) {
+		blackhole.consume(TextResolver.resolve(template, nestedList));
+	}
+
+	@Benchmark
+	public void mapToString(Blackhole blackhole) {
+		blackhole.consume(TextResolver.resolve(template, map.toString()));
+	}
+
+	@Benchmark
+	public void map(Blackhole blackhole) {
+		blackhole.consume(TextResolver.resolve(template, map));
+	}
+
+}
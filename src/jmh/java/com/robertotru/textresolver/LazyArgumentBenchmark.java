@@ -0,0 +1,64 @@
+package com.robertotru.textresolver;
+
+import java.util.Arrays;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares eager and lazy arguments whose value is expensive to compute.
+ * With {@code rendered = false} the message is discarded before being resolved, as it happens when the caller
+ * decides late whether the message is needed.
+ */
+@State(Scope.Benchmark)
+public class LazyArgumentBenchmark {
+
+	@Param({"true", "false"})
+	public boolean rendered;
+
+	@Param({"1000"})
+	public int payloadSize;
+
+	String template = "Request {} failed with payload {}.";
+
+	String requestId = "4b1f0c2e";
+
+	long[] payload;
+
+	@Setup
+	public void setUp() {
+		payload = new long[payloadSize];
+		for (int i = 0; i < payloadSize; i++) {
+			payload[i] = i * 31L;
+		}
+	}
+
+	private String serialize() {
+		return Arrays.toString(payload);
+	}
+
+	@Benchmark
+	public void eagerArgument(Blackhole blackhole) {
+		final String serializedPayload = serialize();
+		if (rendered) {
+			blackhole.consume(TextResolver.resolve(template, requestId, serializedPayload));
+		} else {
+			blackhole.consume(serializedPayload);
+		}
+	}
+
+	@Benchmark
+	public void lazyArgument(Blackhole blackhole) {
+		final LazyArgument serializedPayload = TextResolver.lazy(this::serialize);
+		if (rendered) {
+			blackhole.consume(TextResolver.resolve(template, requestId, serializedPayload));
+		} else {
+			blackhole.consume(serializedPayload);
+		}
+	}
+
+}
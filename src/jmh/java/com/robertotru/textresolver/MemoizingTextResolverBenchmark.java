@@ -0,0 +1,70 @@
+package com.robertotru.textresolver;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares {@link TextResolver} with {@link MemoizingTextResolver} on a status message.
+ * With {@code distinctMessages = 32} almost every call is a hit, while with {@code distinctMessages = 1000000}
+ * the working set does not fit in the cache and almost every call is a miss.
+ */
+@State(Scope.Benchmark)
+public class MemoizingTextResolverBenchmark {
+
+	@Param({"32", "1000000"})
+	public int distinctMessages;
+
+	@Param({"10000"})
+	public int cacheSize;
+
+	String template = "Component {} is {} after {} retries.";
+
+	String[] components;
+
+	TimeUnit[] states;
+
+	Integer[] retries;
+
+	MemoizingTextResolver memoizingTextResolver;
+
+	int index;
+
+	@Setup
+	public void setUp() {
+		components = new String[distinctMessages];
+		states = new TimeUnit[distinctMessages];
+		retries = new Integer[distinctMessages];
+		final TimeUnit[] values = TimeUnit.values();
+		for (int i = 0; i < distinctMessages; i++) {
+			components[i] = "component-" + (i / (values.length * 4));
+			states[i] = values[i % values.length];
+			retries[i] = i % 4;
+		}
+		memoizingTextResolver = new MemoizingTextResolver(cacheSize);
+	}
+
+	private int nextIndex() {
+		final int current = index;
+		index = current + 1 == distinctMessages ? 0 : current + 1;
+		return current;
+	}
+
+	@Benchmark
+	public void textResolver(Blackhole blackhole) {
+		final int i = nextIndex();
+		blackhole.consume(TextResolver.resolve(template, components[i], states[i], retries[i]));
+	}
+
+	@Benchmark
+	public void memoizingTextResolver(Blackhole blackhole) {
+		final int i = nextIndex();
+		blackhole.consume(memoizingTextResolver.resolve(template, components[i], states[i], retries[i]));
+	}
+
+}
@@ -0,0 +1,105 @@
+package com.robertotru.textresolver;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares loading {@code numberOfMessages} templates from a properties file, and compiling them, with opening the
+ * equivalent {@link MessageCatalog}. The {@code firstCall} benchmarks also resolve one message.
+ * Each invocation starts from scratch, hence the single shot mode. Run it with the {@code jmhSingleShot} Gradle task:
+ * the {@code jmh} task excludes it, since its settings would override these annotations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MessageCatalogBenchmark {
+
+	@Param({"5000"})
+	public int numberOfMessages;
+
+	Path propertiesPath;
+
+	Path catalogPath;
+
+	String messageId;
+
+	@Setup
+	public void setUp() throws IOException {
+		final Properties properties = new Properties();
+		final Map<String, String> templates = new HashMap<>();
+		for (int i = 0; i < numberOfMessages; i++) {
+			final String id = "module" + i % 50 + ".message" + i;
+			final String template = "Message " + i + ": user {} performed {} on \\{} resource {} in {} ms.";
+			properties.setProperty(id, template);
+			templates.put(id, template);
+			if (i == numberOfMessages / 2) {
+				messageId = id;
+			}
+		}
+
+		propertiesPath = Files.createTempFile("message-catalog-benchmark", ".properties");
+		try (Writer writer = Files.newBufferedWriter(propertiesPath, StandardCharsets.UTF_8)) {
+			properties.store(writer, null);
+		}
+		catalogPath = Files.createTempFile("message-catalog-benchmark", ".bin");
+		MessageCatalogCompiler.compile(templates, catalogPath);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.delete(propertiesPath);
+		Files.delete(catalogPath);
+	}
+
+	private Map<String, CompiledTemplate> loadProperties() throws IOException {
+		final Properties properties = new Properties();
+		try (Reader reader = Files.newBufferedReader(propertiesPath, StandardCharsets.UTF_8)) {
+			properties.load(reader);
+		}
+		final Map<String, CompiledTemplate> templates = new HashMap<>();
+		for (final String id : properties.stringPropertyNames()) {
+			templates.put(id, TextResolver.compile(properties.getProperty(id)));
+		}
+		return templates;
+	}
+
+	@Benchmark
+	public void startupProperties(Blackhole blackhole) throws IOException {
+		blackhole.consume(loadProperties());
+	}
+
+	@Benchmark
+	public void startupCatalog(Blackhole blackhole) throws IOException {
+		blackhole.consume(MessageCatalog.open(catalogPath));
+	}
+
+	@Benchmark
+	public void firstCallProperties(Blackhole blackhole) throws IOException {
+		blackhole.consume(loadProperties().get(messageId).resolve("John Snow", "delete", "bucket", 12));
+	}
+
+	@Benchmark
+	public void firstCallCatalog(Blackhole blackhole) throws IOException {
+		blackhole.consume(MessageCatalog.open(catalogPath).resolve(messageId, "John Snow", "delete", "bucket", 12));
+	}
+
+}
@@ -0,0 +1,63 @@
+package com.robertotru.textresolver;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures how {@link CompiledTemplate#resolveInParallel(ForkJoinPool, Object...)} scales with the number of cores
+ * of the pool, compared with the serial {@link CompiledTemplate#resolve(Object...)}, on a generated document with
+ * {@code numberOfPlaceholders} slots.
+ */
+@State(Scope.Benchmark)
+public class ParallelRenderingBenchmark {
+
+	@Param({"1", "2", "4", "8", "16"})
+	public int parallelism;
+
+	@Param({"10000", "50000"})
+	public int numberOfPlaceholders;
+
+	CompiledTemplate compiledTemplate;
+
+	Object[] arguments;
+
+	ForkJoinPool pool;
+
+	@Setup
+	public void setUp() {
+		final StringBuilder template = new StringBuilder();
+		arguments = new Object[numberOfPlaceholders];
+		for (int i = 0; i < numberOfPlaceholders; i++) {
+			template.append("<row id=\"").append(i).append("\">{}</row>\n");
+			arguments[i] = i % 2 == 0
+					? Arrays.asList("name-" + i, i * 1.5, (long) i * i)
+					: new double[]{i, i / 3.0, i / 7.0};
+		}
+		compiledTemplate = TextResolver.compile(template.toString());
+		pool = new ForkJoinPool(parallelism);
+	}
+
+	@TearDown
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+	@Benchmark
+	public void serial(Blackhole blackhole) {
+		blackhole.consume(compiledTemplate.resolve(arguments));
+	}
+
+	@Benchmark
+	public void parallel(Blackhole blackhole) {
+		blackhole.consume(compiledTemplate.resolveInParallel(pool, arguments));
+	}
+
+}
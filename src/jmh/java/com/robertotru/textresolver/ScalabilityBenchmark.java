@@ -0,0 +1,83 @@
+package com.robertotru.textresolver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures how {@link PooledTextResolver} scales with the number of threads sharing it, for each
+ * {@link BufferStrategy}; {@link BufferStrategy#NONE} is the baseline of {@link TextResolver}.
+ * Run it with {@code -prof gc} to see the allocation rate, and with {@code -bm sample} to see the tail latency.
+ * Virtual threads are covered by {@link ScalingDriver}, since JMH drives platform threads.
+ */
+@State(Scope.Benchmark)
+public class ScalabilityBenchmark {
+
+	@Param({"NONE", "THREAD_LOCAL", "STRIPED_POOL", "ADAPTIVE"})
+	public BufferStrategy bufferStrategy;
+
+	String template = "[service={} node={} tenant={}] Request {} completed in {} ms.";
+
+	String service = "billing-service";
+
+	int node = 42;
+
+	String tenant = "acme-corporation";
+
+	String requestId = "4b1f0c2e";
+
+	long elapsed = 1234L;
+
+	PooledTextResolver pooledTextResolver;
+
+	@Setup
+	public void setUp() {
+		pooledTextResolver = new PooledTextResolver(bufferStrategy);
+	}
+
+	@Benchmark
+	@Threads(1)
+	public void threads1(Blackhole blackhole) {
+		resolve(blackhole);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void threads4(Blackhole blackhole) {
+		resolve(blackhole);
+	}
+
+	@Benchmark
+	@Threads(16)
+	public void threads16(Blackhole blackhole) {
+		resolve(blackhole);
+	}
+
+	@Benchmark
+	@Threads(64)
+	public void threads64(Blackhole blackhole) {
+		resolve(blackhole);
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public void threadsMax(Blackhole blackhole) {
+		resolve(blackhole);
+	}
+
+	private void resolve(Blackhole blackhole) {
+		blackhole.consume(pooledTextResolver.resolve(
+				template,
+				service,
+				node,
+				tenant,
+				requestId,
+				elapsed
+		));
+	}
+
+}
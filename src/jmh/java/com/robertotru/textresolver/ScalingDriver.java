@@ -0,0 +1,210 @@
+package com.robertotru.textresolver;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executor-based companion of {@link ScalabilityBenchmark}: for each {@link BufferStrategy} and each level of
+ * concurrency, as many workers as the level resolve messages through a shared {@link PooledTextResolver} until the
+ * same deadline. It reports throughput, p50, p99 and p99.9 latency, and the bytes allocated per message when the JVM
+ * can measure them for the worker threads, which it cannot for virtual threads.
+ * <p>
+ * Usage: {@code ScalingDriver <platform|virtual> <seconds> <concurrency>...}, e.g.
+ * {@code ScalingDriver virtual 5 64 1024 100000}. Virtual threads require JDK 21 or later.
+ */
+public final class ScalingDriver {
+
+	private static final int TOTAL_LATENCY_SAMPLES = 1 << 22;
+	private static final int MINIMUM_LATENCY_SAMPLES = 64;
+	/**
+	 * Number of messages a worker resolves before yielding, so that virtual threads, which never block while
+	 * resolving, interleave on their carriers instead of running one after the other.
+	 */
+	private static final int MESSAGES_PER_YIELD = 64;
+
+	private static final String TEMPLATE = "[service={} node={} tenant={}] Request {} completed in {} ms.";
+
+	private ScalingDriver() {
+	}
+
+	public static void main(final String[] args) throws Exception {
+		if (args.length < 3) {
+			System.err.println("Usage: ScalingDriver <platform|virtual> <seconds> <concurrency>...");
+			System.exit(1);
+		}
+		final boolean virtual = args[0].equals("virtual");
+		if (virtual && !VirtualThreads.isSupported()) {
+			System.err.println("Virtual threads require JDK 21 or later.");
+			System.exit(1);
+		}
+		final long durationNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(args[1]));
+
+		System.out.printf("%-13s %-9s %12s %14s %10s %10s %10s %12s%n",
+				"strategy", "threads", "concurrency", "messages/s", "p50 ns", "p99 ns", "p99.9 ns", "bytes/msg");
+		for (final BufferStrategy bufferStrategy : BufferStrategy.values()) {
+			for (int i = 2; i < args.length; i++) {
+				final int concurrency = Integer.parseInt(args[i]);
+				final PooledTextResolver pooledTextResolver = new PooledTextResolver(bufferStrategy);
+				// warm-up, so that every strategy is measured on compiled code
+				run(pooledTextResolver, virtual, concurrency, durationNanos / 2);
+				final Result result = run(pooledTextResolver, virtual, concurrency, durationNanos);
+				System.out.printf("%-13s %-9s %12d %14.0f %10d %10d %10d %12s%n",
+						bufferStrategy, args[0], concurrency, result.throughput,
+						result.percentile(0.50), result.percentile(0.99), result.percentile(0.999),
+						result.bytesPerMessage < 0 ? "n/a" : String.format("%.1f", result.bytesPerMessage));
+			}
+		}
+	}
+
+	private static Result run(final PooledTextResolver pooledTextResolver,
+	                          final boolean virtual,
+	                          final int concurrency,
+	                          final long durationNanos) throws Exception {
+		final ExecutorService executor = virtual
+				? VirtualThreads.newVirtualThreadPerTaskExecutor()
+				: Executors.newFixedThreadPool(concurrency);
+		final int samplesPerWorker = Math.max(MINIMUM_LATENCY_SAMPLES, TOTAL_LATENCY_SAMPLES / concurrency);
+		final CountDownLatch ready = new CountDownLatch(concurrency);
+		final CountDownLatch start = new CountDownLatch(1);
+		final List<Future<Worker>> futures = new ArrayList<>(concurrency);
+		// written before start is counted down, hence visible to the workers once they pass start.await()
+		final long[] deadline = new long[1];
+		try {
+			for (int i = 0; i < concurrency; i++) {
+				final Worker worker = new Worker(pooledTextResolver, i, samplesPerWorker);
+				futures.add(executor.submit(() -> {
+					ready.countDown();
+					start.await();
+					worker.run(deadline[0]);
+					return worker;
+				}));
+			}
+			ready.await();
+			final long startTime = System.nanoTime();
+			// one deadline for all workers: those scheduled late resolve fewer messages, rather than running later
+			deadline[0] = startTime + durationNanos;
+			start.countDown();
+
+			final List<Worker> workers = new ArrayList<>(concurrency);
+			for (final Future<Worker> future : futures) {
+				workers.add(future.get());
+			}
+			return new Result(workers, System.nanoTime() - startTime);
+		} finally {
+			executor.shutdown();
+			executor.awaitTermination(1, TimeUnit.MINUTES);
+		}
+	}
+
+	/**
+	 * Resolves messages until the deadline, keeping the latency of the most recent ones.
+	 */
+	private static final class Worker {
+
+		private final PooledTextResolver pooledTextResolver;
+		private final int workerId;
+		private final long[] latencies;
+		private long count;
+		private long allocatedBytes = -1;
+
+		Worker(final PooledTextResolver pooledTextResolver, final int workerId, final int numberOfSamples) {
+			this.pooledTextResolver = pooledTextResolver;
+			this.workerId = workerId;
+			this.latencies = new long[numberOfSamples];
+		}
+
+		void run(final long deadline) {
+			final long allocatedBytesBefore = currentThreadAllocatedBytes();
+			long sink = 0;
+			long now = System.nanoTime();
+			while (now < deadline) {
+				final String message = pooledTextResolver.resolve(TEMPLATE,
+						"billing-service", workerId, "acme-corporation", count, count & 1023);
+				sink += message.length();
+				final long end = System.nanoTime();
+				latencies[(int) (count % latencies.length)] = end - now;
+				count++;
+				if (count % MESSAGES_PER_YIELD == 0) {
+					Thread.yield();
+					now = System.nanoTime();
+				} else {
+					now = end;
+				}
+			}
+			final long allocatedBytesAfter = currentThreadAllocatedBytes();
+			if (allocatedBytesBefore >= 0 && allocatedBytesAfter >= 0) {
+				allocatedBytes = allocatedBytesAfter - allocatedBytesBefore;
+			}
+			// workers started after the deadline resolve nothing
+			if (count > 0 && sink == 0) {
+				throw new IllegalStateException("No message was resolved.");
+			}
+		}
+
+		long[] samples() {
+			return count < latencies.length ? Arrays.copyOf(latencies, (int) count) : latencies;
+		}
+
+		@SuppressWarnings("deprecation") // Thread.threadId() is not available before JDK 19
+		private static long currentThreadAllocatedBytes() {
+			final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+			if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+				return -1;
+			}
+			final com.sun.management.ThreadMXBean allocationMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+			if (!allocationMXBean.isThreadAllocatedMemorySupported()
+					|| !allocationMXBean.isThreadAllocatedMemoryEnabled()) {
+				return -1;
+			}
+			// -1 for virtual threads
+			return allocationMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+	}
+
+	private static final class Result {
+
+		private final double throughput;
+		private final double bytesPerMessage;
+		private final long[] latencies;
+
+		Result(final List<Worker> workers, final long elapsedNanos) {
+			long count = 0;
+			long allocatedBytes = 0;
+			int numberOfSamples = 0;
+			for (final Worker worker : workers) {
+				count += worker.count;
+				if (allocatedBytes >= 0) {
+					allocatedBytes = worker.allocatedBytes < 0 ? -1 : allocatedBytes + worker.allocatedBytes;
+				}
+				numberOfSamples += worker.samples().length;
+			}
+			this.throughput = count * 1e9 / elapsedNanos;
+			this.bytesPerMessage = allocatedBytes < 0 || count == 0 ? -1 : (double) allocatedBytes / count;
+
+			this.latencies = new long[numberOfSamples];
+			int offset = 0;
+			for (final Worker worker : workers) {
+				final long[] samples = worker.samples();
+				System.arraycopy(samples, 0, latencies, offset, samples.length);
+				offset += samples.length;
+			}
+			Arrays.sort(latencies);
+		}
+
+		long percentile(final double quantile) {
+			if (latencies.length == 0) {
+				return 0;
+			}
+			return latencies[(int) Math.min(latencies.length - 1, Math.ceil(quantile * latencies.length) - 1)];
+		}
+	}
+
+}
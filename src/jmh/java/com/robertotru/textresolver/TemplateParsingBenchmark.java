@@ -0,0 +1,63 @@
+package com.robertotru.textresolver;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the cost of {@link TextResolver#parse(String)} with the one of a full
+ * {@link TextResolver#resolve(String, Object...)}, of resolving an already parsed template, and of loading a parsed
+ * template from its binary form, which is decoding the source and then parsing it.
+ */
+@State(Scope.Benchmark)
+public class TemplateParsingBenchmark {
+
+	@Param({"[service={} node={} tenant={}] Request {} completed in {} ms.",
+			"{}|{}|{}|{}|{}",
+			"Service {} on node {} for tenant {} escapes \\{} and handles request {} in {} ms."})
+	public String template;
+
+	Object[] arguments = {"billing-service", 42, "acme-corporation", "4b1f0c2e", 1234L};
+
+	ParsedTemplate parsedTemplate;
+
+	byte[] binaryForm;
+
+	@Setup
+	public void setUp() throws IOException {
+		parsedTemplate = TextResolver.parse(template);
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		parsedTemplate.writeTo(new DataOutputStream(bytes));
+		binaryForm = bytes.toByteArray();
+	}
+
+	@Benchmark
+	public void parse(Blackhole blackhole) {
+		blackhole.consume(TextResolver.parse(template));
+	}
+
+	@Benchmark
+	public void resolve(Blackhole blackhole) {
+		blackhole.consume(TextResolver.resolve(template, arguments));
+	}
+
+	@Benchmark
+	public void resolveParsed(Blackhole blackhole) {
+		blackhole.consume(TextResolver.resolve(parsedTemplate, arguments));
+	}
+
+	@Benchmark
+	public void readFrom(Blackhole blackhole) throws IOException {
+		blackhole.consume(ParsedTemplate.readFrom(new DataInputStream(new ByteArrayInputStream(binaryForm))));
+	}
+
+}
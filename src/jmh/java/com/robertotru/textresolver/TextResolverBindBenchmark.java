@@ -0,0 +1,69 @@
+package com.robertotru.textresolver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Benchmark)
+public class TextResolverBindBenchmark {
+
+	@Param({"[service={} node={} tenant={}] Request {} completed in {} ms.",
+			"{}|{}|{}|{}|{}",
+			"Service {} on node {} for tenant {} escapes \\{} and handles request {} in {} ms."})
+	public String template;
+
+	String service = "billing-service";
+
+	int node = 42;
+
+	String tenant = "acme-corporation";
+
+	String requestId = "4b1f0c2e";
+
+	long elapsed = 1234L;
+
+	CompiledTemplate compiledTemplate;
+
+	CompiledTemplate boundTemplate;
+
+	@Setup
+	public void setUp() {
+		compiledTemplate = TextResolver.compile(template);
+		boundTemplate = TextResolver.bind(template, service, node, tenant);
+	}
+
+	@Benchmark
+	public void textResolver(Blackhole blackhole) {
+		blackhole.consume(TextResolver.resolve(
+				template,
+				service,
+				node,
+				tenant,
+				requestId,
+				elapsed
+		));
+	}
+
+	@Benchmark
+	public void compiledTemplate(Blackhole blackhole) {
+		blackhole.consume(compiledTemplate.resolve(
+				service,
+				node,
+				tenant,
+				requestId,
+				elapsed
+		));
+	}
+
+	@Benchmark
+	public void boundTemplate(Blackhole blackhole) {
+		blackhole.consume(boundTemplate.resolve(
+				requestId,
+				elapsed
+		));
+	}
+
+}
@@ -0,0 +1,120 @@
+package com.robertotru.textresolver;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Writes a report of {@code numberOfLines} formatted lines to a temporary file, comparing
+ * {@code writer.write(TextResolver.resolve(...))} with {@link TextResolverWriter}.
+ * Each variant changes a single thing compared with the previous one: the sink, then gathering writes, then the
+ * compiled template.
+ * Each invocation writes the whole file, hence the single shot mode. Run it with the {@code jmhSingleShot} Gradle task:
+ * the {@code jmh} task excludes it, since its settings would override these annotations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, batchSize = 1)
+@Measurement(iterations = 3, batchSize = 1)
+@Fork(1)
+public class TextResolverWriterBenchmark {
+
+	@Param({"10000000"})
+	public int numberOfLines;
+
+	String template = "{};{};{};{}";
+
+	CompiledTemplate compiledTemplate = TextResolver.compile(template);
+
+	String name = "John Snow";
+
+	double amount = 1234.567890;
+
+	LocalDate date = LocalDate.now();
+
+	Path path;
+
+	@Setup(Level.Iteration)
+	public void setUp() throws IOException {
+		path = Files.createTempFile("text-resolver-writer-benchmark", ".csv");
+	}
+
+	@TearDown(Level.Iteration)
+	public void tearDown() throws IOException {
+		Files.delete(path);
+	}
+
+	@Benchmark
+	public void bufferedWriter() throws IOException {
+		try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+			for (int i = 0; i < numberOfLines; i++) {
+				writer.write(TextResolver.resolve(template, i, name, amount, date));
+				writer.newLine();
+			}
+		}
+	}
+
+	@Benchmark
+	public void textResolverWriter() throws IOException {
+		final Writer outputStreamWriter = new OutputStreamWriter(Files.newOutputStream(path), StandardCharsets.UTF_8);
+		try (TextResolverWriter writer = new TextResolverWriter(outputStreamWriter)) {
+			for (int i = 0; i < numberOfLines; i++) {
+				writer.println(template, i, name, amount, date);
+			}
+		}
+	}
+
+	@Benchmark
+	public void textResolverWriterOnChannel() throws IOException {
+		try (TextResolverWriter writer = new TextResolverWriter(
+				FileChannel.open(path, StandardOpenOption.WRITE), StandardCharsets.UTF_8)) {
+			for (int i = 0; i < numberOfLines; i++) {
+				writer.println(template, i, name, amount, date);
+			}
+		}
+	}
+
+	@Benchmark
+	public void textResolverWriterOnChannelWithGatheringWrites() throws IOException {
+		try (TextResolverWriter writer = new TextResolverWriter(
+				FileChannel.open(path, StandardOpenOption.WRITE), StandardCharsets.UTF_8, 64 * 1024, 8)) {
+			for (int i = 0; i < numberOfLines; i++) {
+				writer.println(template, i, name, amount, date);
+			}
+		}
+	}
+
+	@Benchmark
+	public void textResolverWriterOnChannelWithGatheringWritesAndCompiledTemplate() throws IOException {
+		try (TextResolverWriter writer = new TextResolverWriter(
+				FileChannel.open(path, StandardOpenOption.WRITE), StandardCharsets.UTF_8, 64 * 1024, 8)) {
+			for (int i = 0; i < numberOfLines; i++) {
+				writer.println(compiledTemplate, i, name, amount, date);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,48 @@
+package com.robertotru.textresolver.logging;
+
+import com.robertotru.textresolver.TextResolver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Simulates a log event rendered into the buffer of an appender, comparing a message resolved into a new
+ * {@link String} with a {@link ReusableTextResolverMessage}.
+ * Allocation per event is reported by the GC profiler, e.g. {@code -prof gc}: the reusable message is expected to
+ * allocate nothing.
+ */
+@State(Scope.Thread)
+public class ReusableMessageBenchmark {
+
+	String template = "User {} performed {} on {} resource(s).";
+
+	String user = "John Snow";
+
+	String action = "delete";
+
+	Integer count = 42;
+
+	StringBuilder appenderBuffer = new StringBuilder(1024);
+
+	@Benchmark
+	public void resolvedMessage(Blackhole blackhole) {
+		appenderBuffer.setLength(0);
+		appenderBuffer.append(TextResolver.resolve(template, user, action, count));
+		blackhole.consume(appenderBuffer.length());
+	}
+
+	@Benchmark
+	public void reusableMessage(Blackhole blackhole) {
+		appenderBuffer.setLength(0);
+		final ReusableTextResolverMessage message = ReusableMessageFactory.newMessage(template, user, action, count);
+		try {
+			message.formatTo(appenderBuffer);
+		} finally {
+			ReusableMessageFactory.release(message);
+		}
+		blackhole.consume(appenderBuffer.length());
+	}
+
+}
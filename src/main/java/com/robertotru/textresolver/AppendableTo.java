@@ -0,0 +1,15 @@
+package com.robertotru.textresolver;
+
+/**
+ * Implemented by arguments able to write their textual representation into the message being resolved, without
+ * building an intermediate {@link String} via {@link Object#toString()}.
+ * Implementations should append the same text returned by {@link Object#toString()}.
+ */
+public interface AppendableTo {
+
+	/**
+	 * @param stringBuilder the builder of the message being resolved
+	 */
+	void appendTo(StringBuilder stringBuilder);
+
+}
@@ -0,0 +1,31 @@
+package com.robertotru.textresolver;
+
+/**
+ * How {@link PooledTextResolver} obtains the buffer a message is rendered into.
+ */
+public enum BufferStrategy {
+
+	/**
+	 * A new buffer for each message, as {@link TextResolver#resolve(String, Object...)} does.
+	 * Nothing is retained between calls.
+	 */
+	NONE,
+
+	/**
+	 * One buffer per thread. Cheapest on a fixed set of platform threads, but with millions of short-lived virtual
+	 * threads, buffers are seldom reused while each thread keeps its own.
+	 */
+	THREAD_LOCAL,
+
+	/**
+	 * A fixed number of buffers shared by all threads, taken and returned with atomic operations only, so that a
+	 * virtual thread never pins its carrier while holding one. Memory is bounded by the number of stripes.
+	 */
+	STRIPED_POOL,
+
+	/**
+	 * {@link #THREAD_LOCAL} for platform threads and {@link #STRIPED_POOL} for virtual threads, decided at each call.
+	 */
+	ADAPTIVE
+
+}
@@ -0,0 +1,310 @@
+package com.robertotru.textresolver;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Message template that has already been parsed by {@link TextResolver#compile(String)}.
+ * The template is stored as a single literal text, where escapes have already been resolved, together with the
+ * offsets at which the arguments have to be inserted.
+ * Instances are immutable and can be shared across threads.
+ */
+public final class CompiledTemplate {
+
+	/**
+	 * Minimum estimated length of the message for {@link #resolveInParallel(ForkJoinPool, Object...)} to split the
+	 * work.
+	 */
+	static final int PARALLEL_THRESHOLD = 64 * 1024;
+	static final int MINIMUM_RANGE_SIZE = 512;
+	private static final int RANGES_PER_THREAD = 4;
+
+	private final String literal;
+	private final int[] placeholderOffsets;
+
+	CompiledTemplate(final String literal, final int[] placeholderOffsets) {
+		this.literal = literal;
+		this.placeholderOffsets = placeholderOffsets;
+	}
+
+	String getLiteral() {
+		return literal;
+	}
+
+	int[] getPlaceholderOffsets() {
+		return placeholderOffsets;
+	}
+
+	/**
+	 * @return the number of arguments expected by {@link #resolve(Object...)}
+	 */
+	public int getArity() {
+		return placeholderOffsets.length;
+	}
+
+	/**
+	 * Formats this template with the given arguments, following the same rules as
+	 * {@link TextResolver#resolve(String, Object...)}.
+	 *
+	 * @param arguments one argument for each placeholder
+	 * @return the formatted message
+	 */
+	public String resolve(final Object... arguments) {
+		return resolveAsCharSequence(arguments).toString();
+	}
+
+	public CharSequence resolveAsCharSequence(final Object... arguments) {
+		checkArguments(arguments);
+
+		final StringBuilder stringBuilder = new StringBuilder(literal.length()
+				+ arguments.length * TextResolver.ESTIMATED_ARGUMENT_LENGTH);
+		appendResolved(stringBuilder, arguments);
+		return stringBuilder;
+	}
+
+	/**
+	 * Same as {@link #resolve(Object...)}, but appends the formatted message to the given builder.
+	 * Arguments are checked before anything is appended.
+	 *
+	 * @param stringBuilder the builder the message is appended to
+	 * @param arguments     one argument for each placeholder
+	 * @return the given builder
+	 */
+	public StringBuilder resolveTo(final StringBuilder stringBuilder, final Object... arguments) {
+		if (stringBuilder == null) {
+			throw new IllegalArgumentException("String builder cannot be null.");
+		}
+		checkArguments(arguments);
+
+		appendResolved(stringBuilder, arguments);
+		return stringBuilder;
+	}
+
+	private void appendResolved(final StringBuilder stringBuilder, final Object[] arguments) {
+		appendRange(stringBuilder, arguments, 0, placeholderOffsets.length);
+	}
+
+	/**
+	 * Same as {@link #resolveInParallel(ForkJoinPool, Object...)}, using the common pool.
+	 */
+	public String resolveInParallel(final Object... arguments) {
+		return resolveInParallel(ForkJoinPool.commonPool(), arguments);
+	}
+
+	/**
+	 * Same as {@link #resolve(Object...)}, but meant for huge messages: when the message is estimated to be long
+	 * enough, the placeholders are split in ranges rendered concurrently on the given pool, each into its own buffer.
+	 * The buffers are then copied concurrently into the characters of the message, so that the only serial copy is
+	 * the creation of the resulting {@link String}, which is identical to the one of {@link #resolve(Object...)}.
+	 * <p>
+	 * The length is estimated from the template and the arguments: a {@link CharSequence} counts for its length,
+	 * any other argument for a few characters, since it is not rendered for the estimate. Ranges hold the same
+	 * number of placeholders, at least a few hundred each, so a message made of a few huge arguments is resolved
+	 * serially, and uneven arguments make uneven ranges.
+	 * Below the threshold, or when the pool has a single thread, the template is simply resolved serially.
+	 * Arguments must support being rendered from a thread other than the caller.
+	 *
+	 * @param pool      the pool rendering the ranges
+	 * @param arguments one argument for each placeholder
+	 * @return the formatted message
+	 */
+	public String resolveInParallel(final ForkJoinPool pool, final Object... arguments) {
+		if (pool == null) {
+			throw new IllegalArgumentException("Pool cannot be null.");
+		}
+		checkArguments(arguments);
+
+		final int arity = placeholderOffsets.length;
+		final int numberOfRanges = Math.min(pool.getParallelism() * RANGES_PER_THREAD, arity / MINIMUM_RANGE_SIZE);
+		if (pool.getParallelism() == 1 || numberOfRanges < 2 || !isLongerThanParallelThreshold(arguments)) {
+			return resolve(arguments);
+		}
+
+		final StringBuilder[] buffers = new StringBuilder[numberOfRanges];
+		final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+		pool.invoke(new RangeRendering(arguments, buffers, failure, 0, numberOfRanges));
+		if (failure.get() != null) {
+			// rethrown as is: the pool would wrap it into a new exception with a different message
+			throw failure.get();
+		}
+
+		final int[] offsets = new int[numberOfRanges];
+		int length = 0;
+		for (int i = 0; i < numberOfRanges; i++) {
+			offsets[i] = length;
+			length += buffers[i].length();
+		}
+		final char[] chars = new char[length];
+		pool.invoke(new RangeCopy(buffers, offsets, chars, 0, numberOfRanges));
+		return new String(chars);
+	}
+
+	private boolean isLongerThanParallelThreshold(final Object[] arguments) {
+		long length = literal.length();
+		for (final Object argument : arguments) {
+			length += argument instanceof CharSequence
+					? ((CharSequence) argument).length()
+					: TextResolver.ESTIMATED_ARGUMENT_LENGTH;
+			if (length >= PARALLEL_THRESHOLD) {
+				return true;
+			}
+		}
+		return length >= PARALLEL_THRESHOLD;
+	}
+
+	/**
+	 * Renders the given arguments into the leading placeholders of this template.
+	 * The rendered values are literal text of the returned template, hence a value containing {@code {}} is never
+	 * mistaken for a placeholder.
+	 *
+	 * @param fixedArguments the values of the leading placeholders, at most {@link #getArity()}
+	 * @return a template expecting only the remaining arguments
+	 */
+	public CompiledTemplate bind(final Object... fixedArguments) {
+		if (fixedArguments == null) {
+			throw new IllegalArgumentException("Array of arguments cannot be null.");
+		}
+		final int numberOfFixedArguments = fixedArguments.length;
+		TextResolver.checkUsedArguments(placeholderOffsets.length, numberOfFixedArguments);
+		if (numberOfFixedArguments == 0) {
+			return this;
+		}
+
+		final StringBuilder boundLiteral = new StringBuilder(literal.length()
+				+ numberOfFixedArguments * TextResolver.ESTIMATED_ARGUMENT_LENGTH);
+		int literalStartIndex = 0;
+		for (int i = 0; i < numberOfFixedArguments; i++) {
+			final int placeholderOffset = placeholderOffsets[i];
+			boundLiteral.append(literal, literalStartIndex, placeholderOffset);
+			TextResolver.appendParameter(boundLiteral, fixedArguments[i]);
+			literalStartIndex = placeholderOffset;
+		}
+		// the remaining placeholders move by the length of what has been rendered so far
+		final int shift = boundLiteral.length() - literalStartIndex;
+		boundLiteral.append(literal, literalStartIndex, literal.length());
+
+		final int[] boundPlaceholderOffsets = new int[placeholderOffsets.length - numberOfFixedArguments];
+		for (int i = 0; i < boundPlaceholderOffsets.length; i++) {
+			boundPlaceholderOffsets[i] = placeholderOffsets[numberOfFixedArguments + i] + shift;
+		}
+		return new CompiledTemplate(boundLiteral.toString(), boundPlaceholderOffsets);
+	}
+
+	private void appendRange(final StringBuilder stringBuilder,
+	                         final Object[] arguments,
+	                         final int firstPlaceholder,
+	                         final int lastPlaceholder) {
+		int literalStartIndex = firstPlaceholder == 0 ? 0 : placeholderOffsets[firstPlaceholder - 1];
+		for (int i = firstPlaceholder; i < lastPlaceholder; i++) {
+			final int placeholderOffset = placeholderOffsets[i];
+			stringBuilder.append(literal, literalStartIndex, placeholderOffset);
+			TextResolver.appendParameter(stringBuilder, arguments[i]);
+			literalStartIndex = placeholderOffset;
+		}
+		if (lastPlaceholder == placeholderOffsets.length) {
+			stringBuilder.append(literal, literalStartIndex, literal.length());
+		}
+	}
+
+	private void checkArguments(final Object[] arguments) {
+		if (arguments == null) {
+			throw new IllegalArgumentException("Array of arguments cannot be null.");
+		}
+		TextResolver.checkArity(placeholderOffsets.length, arguments.length);
+	}
+
+	/**
+	 * Renders the ranges {@code [firstRange, lastRange)}, splitting them in halves until a single range is left.
+	 */
+	private final class RangeRendering extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final Object[] arguments;
+		private final StringBuilder[] buffers;
+		private final AtomicReference<RuntimeException> failure;
+		private final int firstRange;
+		private final int lastRange;
+
+		RangeRendering(final Object[] arguments,
+		               final StringBuilder[] buffers,
+		               final AtomicReference<RuntimeException> failure,
+		               final int firstRange,
+		               final int lastRange) {
+			this.arguments = arguments;
+			this.buffers = buffers;
+			this.failure = failure;
+			this.firstRange = firstRange;
+			this.lastRange = lastRange;
+		}
+
+		@Override
+		protected void compute() {
+			if (lastRange - firstRange > 1) {
+				final int middleRange = (firstRange + lastRange) >>> 1;
+				invokeAll(new RangeRendering(arguments, buffers, failure, firstRange, middleRange),
+						new RangeRendering(arguments, buffers, failure, middleRange, lastRange));
+				return;
+			}
+			if (failure.get() != null) {
+				return;
+			}
+
+			final int numberOfRanges = buffers.length;
+			final int arity = placeholderOffsets.length;
+			final int firstPlaceholder = (int) ((long) arity * firstRange / numberOfRanges);
+			final int lastPlaceholder = (int) ((long) arity * lastRange / numberOfRanges);
+			final int literalStartIndex = firstPlaceholder == 0 ? 0 : placeholderOffsets[firstPlaceholder - 1];
+			final int literalEndIndex = lastPlaceholder == arity
+					? literal.length()
+					: placeholderOffsets[lastPlaceholder - 1];
+			final StringBuilder buffer = new StringBuilder(literalEndIndex - literalStartIndex
+					+ (lastPlaceholder - firstPlaceholder) * TextResolver.ESTIMATED_ARGUMENT_LENGTH);
+			try {
+				appendRange(buffer, arguments, firstPlaceholder, lastPlaceholder);
+			} catch (RuntimeException e) {
+				failure.compareAndSet(null, e);
+			}
+			buffers[firstRange] = buffer;
+		}
+	}
+
+	/**
+	 * Copies the buffers of the ranges {@code [firstRange, lastRange)} into the characters of the message, each at
+	 * its offset.
+	 */
+	private static final class RangeCopy extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final StringBuilder[] buffers;
+		private final int[] offsets;
+		private final char[] chars;
+		private final int firstRange;
+		private final int lastRange;
+
+		RangeCopy(final StringBuilder[] buffers,
+		          final int[] offsets,
+		          final char[] chars,
+		          final int firstRange,
+		          final int lastRange) {
+			this.buffers = buffers;
+			this.offsets = offsets;
+			this.chars = chars;
+			this.firstRange = firstRange;
+			this.lastRange = lastRange;
+		}
+
+		@Override
+		protected void compute() {
+			if (lastRange - firstRange > 1) {
+				final int middleRange = (firstRange + lastRange) >>> 1;
+				invokeAll(new RangeCopy(buffers, offsets, chars, firstRange, middleRange),
+						new RangeCopy(buffers, offsets, chars, middleRange, lastRange));
+				return;
+			}
+			final StringBuilder buffer = buffers[firstRange];
+			buffer.getChars(0, buffer.length(), chars, offsets[firstRange]);
+		}
+	}
+
+}
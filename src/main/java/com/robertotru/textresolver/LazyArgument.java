@@ -0,0 +1,56 @@
+package com.robertotru.textresolver;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Argument whose value is computed only when the placeholder it is bound to is rendered.
+ * The value is computed at most once, even if the argument is rendered several times.
+ * Instances are created via {@link TextResolver#lazy(Supplier)}.
+ */
+public final class LazyArgument {
+
+	private static final Object NOT_EVALUATED = new Object();
+
+	private final Supplier<?> supplier;
+	// not a monitor: a virtual thread blocking in the supplier would pin its carrier until JDK 24
+	private final ReentrantLock lock = new ReentrantLock();
+	private volatile Object value = NOT_EVALUATED;
+
+	LazyArgument(final Supplier<?> supplier) {
+		this.supplier = supplier;
+	}
+
+	/**
+	 * @return the value returned by the supplier, which is invoked on the first call only
+	 */
+	public Object get() {
+		Object result = value;
+		if (result == NOT_EVALUATED) {
+			lock.lock();
+			try {
+				result = value;
+				if (result == NOT_EVALUATED) {
+					result = supplier.get();
+					value = result;
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return {@code true} if the supplier has already been invoked
+	 */
+	public boolean isEvaluated() {
+		return value != NOT_EVALUATED;
+	}
+
+	@Override
+	public String toString() {
+		return String.valueOf(get());
+	}
+
+}
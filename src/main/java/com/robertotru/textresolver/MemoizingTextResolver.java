@@ -0,0 +1,295 @@
+package com.robertotru.textresolver;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in resolver that caches the messages produced by {@link TextResolver#resolve(String, Object...)}.
+ * A message is cached only when every argument is {@code null} or an instance of a type known to be immutable:
+ * {@link String}, the boxed primitives, enums, and the types registered via {@link #registerImmutableType(Class)}.
+ * Any other argument, e.g. a mutable collection, makes the call bypass the cache.
+ * The cache is bounded: it is split in segments, each evicting a message not used recently, as chosen by the CLOCK
+ * approximation of the least recently used policy. Cache hits take no lock: only misses lock their segment.
+ * Instances are thread safe.
+ */
+public class MemoizingTextResolver {
+
+	private static final int MAXIMUM_NUMBER_OF_SEGMENTS = 16;
+
+	private static final Set<Class<?>> BUILT_IN_IMMUTABLE_TYPES = new HashSet<>(Arrays.asList(
+			String.class,
+			Boolean.class,
+			Character.class,
+			Byte.class,
+			Short.class,
+			Integer.class,
+			Long.class,
+			Float.class,
+			Double.class
+	));
+
+	private final Set<Class<?>> registeredImmutableTypes = ConcurrentHashMap.newKeySet();
+	private final Segment[] segments;
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+	private final LongAdder bypassCount = new LongAdder();
+
+	/**
+	 * @param maximumSize the maximum number of messages kept in the cache
+	 */
+	public MemoizingTextResolver(final int maximumSize) {
+		if (maximumSize <= 0) {
+			throw new IllegalArgumentException("Maximum size must be positive.");
+		}
+		int numberOfSegments = 1;
+		while (numberOfSegments < MAXIMUM_NUMBER_OF_SEGMENTS && numberOfSegments * 2 <= maximumSize) {
+			numberOfSegments *= 2;
+		}
+		segments = new Segment[numberOfSegments];
+		final int segmentSize = maximumSize / numberOfSegments;
+		for (int i = 0; i < numberOfSegments; i++) {
+			// spread the remainder, so that the overall size is exactly maximumSize
+			segments[i] = new Segment(i < maximumSize % numberOfSegments ? segmentSize + 1 : segmentSize);
+		}
+	}
+
+	/**
+	 * Declares the given type as immutable, so that its instances can be used as cache keys.
+	 * The type must implement {@link Object#equals(Object)} and {@link Object#hashCode()} consistently with
+	 * {@link Object#toString()}. Subclasses are not registered implicitly.
+	 *
+	 * @param type the immutable type
+	 * @return this resolver
+	 */
+	public MemoizingTextResolver registerImmutableType(final Class<?> type) {
+		if (type == null) {
+			throw new IllegalArgumentException("Type cannot be null.");
+		}
+		registeredImmutableTypes.add(type);
+		return this;
+	}
+
+	/**
+	 * Same as {@link TextResolver#resolve(String, Object...)}, but returns a cached message when the same template
+	 * has already been resolved with equal immutable arguments.
+	 */
+	public String resolve(final String messageTemplate, final Object... arguments) {
+		if (messageTemplate == null || arguments == null || !isCacheable(arguments)) {
+			bypassCount.increment();
+			return TextResolver.resolve(messageTemplate, arguments);
+		}
+		return resolveCacheable(messageTemplate, null, arguments);
+	}
+
+	/**
+	 * Same as {@link #resolve(String, Object...)}, but the template is not parsed again when the message is not
+	 * cached. Messages are shared with {@link #resolve(String, Object...)} for the same source template.
+	 */
+	public String resolve(final ParsedTemplate template, final Object... arguments) {
+		if (template == null || arguments == null || !isCacheable(arguments)) {
+			bypassCount.increment();
+			return TextResolver.resolve(template, arguments);
+		}
+		return resolveCacheable(template.getSource(), template.getCompiledTemplate(), arguments);
+	}
+
+	private String resolveCacheable(final String messageTemplate,
+	                                final CompiledTemplate compiledTemplate,
+	                                final Object[] arguments) {
+		final Key key = new Key(messageTemplate, arguments);
+		final Segment segment = segments[key.hashCode & (segments.length - 1)];
+		final String cachedMessage = segment.get(key);
+		if (cachedMessage != null) {
+			hitCount.increment();
+			return cachedMessage;
+		}
+
+		missCount.increment();
+		final String message = compiledTemplate == null
+				? TextResolver.resolve(messageTemplate, arguments)
+				: compiledTemplate.resolve(arguments);
+		// the caller may reuse its array of arguments, hence the key keeps a copy
+		segment.put(new Key(messageTemplate, arguments.clone(), key.hashCode), message);
+		return message;
+	}
+
+	/**
+	 * @return the number of calls answered by the cache
+	 */
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	/**
+	 * @return the number of cacheable calls that had to resolve the message
+	 */
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	/**
+	 * @return the number of calls that bypassed the cache, because of non immutable arguments
+	 */
+	public long getBypassCount() {
+		return bypassCount.sum();
+	}
+
+	/**
+	 * @return the ratio of hits over the cacheable calls, or {@code 0} when there were none
+	 */
+	public double getHitRate() {
+		final long hits = getHitCount();
+		final long lookups = hits + getMissCount();
+		return lookups == 0 ? 0 : (double) hits / lookups;
+	}
+
+	/**
+	 * @return the number of messages currently cached
+	 */
+	public int size() {
+		int size = 0;
+		for (final Segment segment : segments) {
+			size += segment.size();
+		}
+		return size;
+	}
+
+	/**
+	 * Removes all the cached messages. Statistics are not reset.
+	 */
+	public void clear() {
+		for (final Segment segment : segments) {
+			segment.clear();
+		}
+	}
+
+	private boolean isCacheable(final Object[] arguments) {
+		for (final Object argument : arguments) {
+			if (argument != null && !isImmutable(argument)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean isImmutable(final Object argument) {
+		final Class<?> type = argument.getClass();
+		return BUILT_IN_IMMUTABLE_TYPES.contains(type)
+				|| argument instanceof Enum
+				|| registeredImmutableTypes.contains(type);
+	}
+
+	private static final class Key {
+		private final String messageTemplate;
+		private final Object[] arguments;
+		private final int hashCode;
+
+		Key(final String messageTemplate, final Object[] arguments) {
+			this(messageTemplate, arguments, spread(31 * messageTemplate.hashCode() + Arrays.hashCode(arguments)));
+		}
+
+		Key(final String messageTemplate, final Object[] arguments, final int hashCode) {
+			this.messageTemplate = messageTemplate;
+			this.arguments = arguments;
+			this.hashCode = hashCode;
+		}
+
+		private static int spread(final int hashCode) {
+			return hashCode ^ (hashCode >>> 16);
+		}
+
+		@Override
+		public boolean equals(final Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			final Key key = (Key) o;
+			return hashCode == key.hashCode
+					&& messageTemplate.equals(key.messageTemplate)
+					&& Arrays.equals(arguments, key.arguments);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+
+	/**
+	 * Lookups only read a {@link ConcurrentHashMap} and mark the entry as referenced. Insertions are serialized: the
+	 * entries also sit in a ring, where a clock hand looks for one to evict, giving a second chance to those
+	 * referenced since it last passed them.
+	 */
+	private static final class Segment {
+		private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+		private final Entry[] ring;
+		private int hand;
+		private int numberOfEntries;
+
+		Segment(final int maximumSize) {
+			this.ring = new Entry[maximumSize];
+		}
+
+		String get(final Key key) {
+			final Entry entry = entries.get(key);
+			if (entry == null) {
+				return null;
+			}
+			// avoid writing the shared entry when it is already marked
+			if (!entry.referenced) {
+				entry.referenced = true;
+			}
+			return entry.message;
+		}
+
+		synchronized void put(final Key key, final String message) {
+			if (entries.containsKey(key)) {
+				// resolved concurrently by another thread
+				return;
+			}
+			if (numberOfEntries == ring.length) {
+				while (ring[hand].referenced) {
+					ring[hand].referenced = false;
+					hand = (hand + 1) % ring.length;
+				}
+				entries.remove(ring[hand].key);
+			} else {
+				numberOfEntries++;
+			}
+			final Entry entry = new Entry(key, message);
+			ring[hand] = entry;
+			hand = (hand + 1) % ring.length;
+			entries.put(key, entry);
+		}
+
+		int size() {
+			return entries.size();
+		}
+
+		synchronized void clear() {
+			entries.clear();
+			Arrays.fill(ring, null);
+			hand = 0;
+			numberOfEntries = 0;
+		}
+	}
+
+	private static final class Entry {
+		private final Key key;
+		private final String message;
+		// a stale read only delays the second chance, hence not volatile
+		private boolean referenced;
+
+		Entry(final Key key, final String message) {
+			this.key = key;
+			this.message = message;
+		}
+	}
+
+}
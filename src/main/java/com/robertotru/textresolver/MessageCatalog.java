@@ -0,0 +1,160 @@
+package com.robertotru.textresolver;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Message templates precompiled by {@link MessageCatalogCompiler}.
+ * The catalog file is memory-mapped and each template is read the first time its id is requested: opening a
+ * catalog costs the same whatever the number of messages, and templates are never parsed at runtime.
+ * Instances are thread safe.
+ */
+public final class MessageCatalog {
+
+	private final ByteBuffer buffer;
+	private final int numberOfMessages;
+	private final ConcurrentMap<String, CompiledTemplate> templates = new ConcurrentHashMap<>();
+
+	private MessageCatalog(final ByteBuffer buffer) {
+		this.buffer = buffer;
+		this.numberOfMessages = buffer.getInt(2 * Integer.BYTES);
+	}
+
+	/**
+	 * @param path the file written by {@link MessageCatalogCompiler}
+	 * @return the catalog
+	 */
+	public static MessageCatalog open(final Path path) throws IOException {
+		if (path == null) {
+			throw new IllegalArgumentException("Path cannot be null.");
+		}
+		final ByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			// the mapping stays valid once the channel is closed
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		if (buffer.capacity() < MessageCatalogCompiler.HEADER_LENGTH
+				|| buffer.getInt(0) != MessageCatalogCompiler.MAGIC_NUMBER) {
+			throw new IOException("Not a message catalog: " + path + ".");
+		}
+		if (buffer.getInt(Integer.BYTES) != MessageCatalogCompiler.VERSION) {
+			throw new IOException("Unsupported message catalog version: " + buffer.getInt(Integer.BYTES) + ".");
+		}
+		return new MessageCatalog(buffer);
+	}
+
+	/**
+	 * @return the number of messages in the catalog
+	 */
+	public int size() {
+		return numberOfMessages;
+	}
+
+	/**
+	 * @param id the message id
+	 * @return {@code true} if the catalog contains the message
+	 */
+	public boolean contains(final String id) {
+		return id != null && (templates.containsKey(id) || findMessageOffset(id) != -1);
+	}
+
+	/**
+	 * @param id the message id
+	 * @return the template of the message
+	 */
+	public CompiledTemplate getTemplate(final String id) {
+		if (id == null) {
+			throw new IllegalArgumentException("Message id cannot be null.");
+		}
+		CompiledTemplate template = templates.get(id);
+		if (template == null) {
+			final int messageOffset = findMessageOffset(id);
+			if (messageOffset == -1) {
+				throw new IllegalArgumentException("Message id not found: " + id + ".");
+			}
+			template = readTemplate(messageOffset);
+			final CompiledTemplate previous = templates.putIfAbsent(id, template);
+			if (previous != null) {
+				template = previous;
+			}
+		}
+		return template;
+	}
+
+	/**
+	 * Same as {@link TextResolver#resolve(String, Object...)}, using the template of the given message.
+	 *
+	 * @param id        the message id
+	 * @param arguments one argument for each placeholder
+	 * @return the formatted message
+	 */
+	public String resolve(final String id, final Object... arguments) {
+		return getTemplate(id).resolve(arguments);
+	}
+
+	private int findMessageOffset(final String id) {
+		final int hashCode = id.hashCode();
+		final int hashCodesOffset = MessageCatalogCompiler.HEADER_LENGTH;
+		// binary search of the first message with the given hash code
+		int low = 0;
+		int high = numberOfMessages;
+		while (low < high) {
+			final int middle = (low + high) >>> 1;
+			if (buffer.getInt(hashCodesOffset + middle * Integer.BYTES) < hashCode) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+
+		byte[] idBytes = null;
+		final int messageOffsetsOffset = hashCodesOffset + numberOfMessages * Integer.BYTES;
+		for (int i = low; i < numberOfMessages && buffer.getInt(hashCodesOffset + i * Integer.BYTES) == hashCode; i++) {
+			if (idBytes == null) {
+				idBytes = id.getBytes(StandardCharsets.UTF_8);
+			}
+			final int messageOffset = buffer.getInt(messageOffsetsOffset + i * Integer.BYTES);
+			if (idEquals(messageOffset, idBytes)) {
+				return messageOffset;
+			}
+		}
+		return -1;
+	}
+
+	private boolean idEquals(final int messageOffset, final byte[] idBytes) {
+		if (buffer.getInt(messageOffset) != idBytes.length) {
+			return false;
+		}
+		final int idOffset = messageOffset + Integer.BYTES;
+		for (int i = 0; i < idBytes.length; i++) {
+			if (buffer.get(idOffset + i) != idBytes[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private CompiledTemplate readTemplate(final int messageOffset) {
+		int offset = messageOffset + Integer.BYTES + buffer.getInt(messageOffset);
+		final int arity = buffer.getInt(offset);
+		offset += Integer.BYTES;
+		final int[] placeholderOffsets = new int[arity];
+		for (int i = 0; i < arity; i++) {
+			placeholderOffsets[i] = buffer.getInt(offset);
+			offset += Integer.BYTES;
+		}
+		final byte[] literal = new byte[buffer.getInt(offset)];
+		offset += Integer.BYTES;
+		final ByteBuffer view = buffer.duplicate();
+		view.position(offset);
+		view.get(literal);
+		return new CompiledTemplate(new String(literal, StandardCharsets.UTF_8), placeholderOffsets);
+	}
+
+}
@@ -0,0 +1,136 @@
+package com.robertotru.textresolver;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.ResourceBundle;
+
+/**
+ * Build step producing the binary file read by {@link MessageCatalog}.
+ * Every template is parsed by {@link TextResolver#compile(String)} and stored as its literal text, where escapes
+ * have already been resolved, plus the offsets of its placeholders, so that no parsing is needed at runtime.
+ * <p>
+ * The file is made of:
+ * <ul>
+ *     <li>a header: magic number, version and number of messages;</li>
+ *     <li>the hash codes of the message ids, in ascending order;</li>
+ *     <li>the offset of each message, in the same order as the hash codes;</li>
+ *     <li>the messages: id, arity, placeholder offsets and literal text, strings being encoded in UTF-8.</li>
+ * </ul>
+ * It can also be run from the command line: {@code MessageCatalogCompiler <output> <properties>...}, properties
+ * files being read as UTF-8.
+ */
+public final class MessageCatalogCompiler {
+
+	static final int MAGIC_NUMBER = 0x54524D43; // TRMC
+	static final int VERSION = 1;
+	static final int HEADER_LENGTH = 3 * Integer.BYTES;
+
+	private MessageCatalogCompiler() {
+	}
+
+	public static void main(final String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: MessageCatalogCompiler <output> <properties>...");
+			System.exit(1);
+		}
+		final Map<String, String> templates = new LinkedHashMap<>();
+		for (int i = 1; i < args.length; i++) {
+			final Properties properties = new Properties();
+			try (Reader reader = Files.newBufferedReader(Paths.get(args[i]), StandardCharsets.UTF_8)) {
+				properties.load(reader);
+			}
+			for (final String id : properties.stringPropertyNames()) {
+				templates.put(id, properties.getProperty(id));
+			}
+		}
+		compile(templates, Paths.get(args[0]));
+	}
+
+	/**
+	 * @param bundle the bundle whose values are message templates
+	 * @param output the catalog file to write
+	 */
+	public static void compile(final ResourceBundle bundle, final Path output) throws IOException {
+		if (bundle == null) {
+			throw new IllegalArgumentException("Resource bundle cannot be null.");
+		}
+		final Map<String, String> templates = new LinkedHashMap<>();
+		for (final String id : bundle.keySet()) {
+			templates.put(id, bundle.getString(id));
+		}
+		compile(templates, output);
+	}
+
+	/**
+	 * @param templates the message templates, by message id
+	 * @param output    the catalog file to write
+	 */
+	public static void compile(final Map<String, String> templates, final Path output) throws IOException {
+		if (templates == null) {
+			throw new IllegalArgumentException("Map of templates cannot be null.");
+		}
+		if (output == null) {
+			throw new IllegalArgumentException("Output cannot be null.");
+		}
+
+		final List<String> ids = new ArrayList<>(templates.keySet());
+		// equal hash codes are sorted by id, so that the output does not depend on the iteration order
+		ids.sort(Comparator.comparingInt(String::hashCode).thenComparing(Comparator.naturalOrder()));
+
+		final int numberOfMessages = ids.size();
+		final int[] messageOffsets = new int[numberOfMessages];
+		final int firstMessageOffset = HEADER_LENGTH + 2 * numberOfMessages * Integer.BYTES;
+		final ByteArrayOutputStream messages = new ByteArrayOutputStream();
+		final DataOutputStream messagesOutput = new DataOutputStream(messages);
+		for (int i = 0; i < numberOfMessages; i++) {
+			final String id = ids.get(i);
+			final String template = templates.get(id);
+			if (template == null) {
+				throw new IllegalArgumentException("Message template cannot be null: " + id + ".");
+			}
+			final CompiledTemplate compiledTemplate = TextResolver.compile(template);
+			messageOffsets[i] = firstMessageOffset + messagesOutput.size();
+			writeString(messagesOutput, id);
+			final int[] placeholderOffsets = compiledTemplate.getPlaceholderOffsets();
+			messagesOutput.writeInt(placeholderOffsets.length);
+			for (final int placeholderOffset : placeholderOffsets) {
+				messagesOutput.writeInt(placeholderOffset);
+			}
+			writeString(messagesOutput, compiledTemplate.getLiteral());
+		}
+
+		try (DataOutputStream catalogOutput = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(output)))) {
+			catalogOutput.writeInt(MAGIC_NUMBER);
+			catalogOutput.writeInt(VERSION);
+			catalogOutput.writeInt(numberOfMessages);
+			for (final String id : ids) {
+				catalogOutput.writeInt(id.hashCode());
+			}
+			for (final int messageOffset : messageOffsets) {
+				catalogOutput.writeInt(messageOffset);
+			}
+			messages.writeTo(catalogOutput);
+		}
+	}
+
+	private static void writeString(final DataOutputStream output, final String value) throws IOException {
+		final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		output.writeInt(bytes.length);
+		output.write(bytes);
+	}
+
+}
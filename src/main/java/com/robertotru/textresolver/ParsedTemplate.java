@@ -0,0 +1,203 @@
+package com.robertotru.textresolver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Structure of a message template, as obtained by {@link TextResolver#parse(String)}: its arity, the offsets of its
+ * placeholders and of its escapes in the source template, and the literal segments between placeholders.
+ * It lets tools inspect a template without resolving it, and it is accepted by the resolve methods of
+ * {@link TextResolver}, {@link MemoizingTextResolver} and {@link TextResolverWriter}, so that a template parsed once
+ * can be shared across subsystems.
+ * It can be stored via {@link #writeTo(DataOutput)} and loaded back via {@link #readFrom(DataInput)}.
+ * Instances are immutable and can be shared across threads.
+ */
+public final class ParsedTemplate {
+
+	/**
+	 * Version of the binary form. Version 1 also stored the placeholder offsets and escape sites, which are now
+	 * derived from the source.
+	 */
+	static final int FORMAT_VERSION = 2;
+	private static final int READ_CHUNK_SIZE = 8192;
+
+	private final String source;
+	private final int[] placeholderOffsets;
+	private final int[] escapeSites;
+	private final CompiledTemplate compiledTemplate;
+
+	ParsedTemplate(final String source,
+	               final int[] placeholderOffsets,
+	               final int[] escapeSites,
+	               final CompiledTemplate compiledTemplate) {
+		this.source = source;
+		this.placeholderOffsets = placeholderOffsets;
+		this.escapeSites = escapeSites;
+		this.compiledTemplate = compiledTemplate;
+	}
+
+	/**
+	 * @return the template as given to {@link TextResolver#parse(String)}
+	 */
+	public String getSource() {
+		return source;
+	}
+
+	/**
+	 * @return the number of arguments expected by the template
+	 */
+	public int getArity() {
+		return placeholderOffsets.length;
+	}
+
+	/**
+	 * @return the offset in the source of each placeholder {@code {}}, i.e. of its opening brace
+	 */
+	public int[] getPlaceholderOffsets() {
+		return placeholderOffsets.clone();
+	}
+
+	/**
+	 * Escape sites are the escape characters removed from the source when the template is resolved: the one of an
+	 * escaped placeholder {@code \{}}, and the second one of an escaped escape {@code \\{}}.
+	 *
+	 * @return the offset in the source of each escape character
+	 */
+	public int[] getEscapeSites() {
+		return escapeSites.clone();
+	}
+
+	/**
+	 * @return the {@link #getArity()} + 1 texts surrounding the placeholders, where escapes have already been
+	 * resolved; segments may be empty
+	 */
+	public List<String> getLiteralSegments() {
+		final String literal = compiledTemplate.getLiteral();
+		final int[] literalOffsets = compiledTemplate.getPlaceholderOffsets();
+		final String[] segments = new String[literalOffsets.length + 1];
+		int segmentStartIndex = 0;
+		for (int i = 0; i < literalOffsets.length; i++) {
+			segments[i] = literal.substring(segmentStartIndex, literalOffsets[i]);
+			segmentStartIndex = literalOffsets[i];
+		}
+		segments[literalOffsets.length] = literal.substring(segmentStartIndex);
+		return Collections.unmodifiableList(Arrays.asList(segments));
+	}
+
+	/**
+	 * @return the compiled form of this template, whose resolve methods behave as the ones of {@link TextResolver}
+	 */
+	public CompiledTemplate getCompiledTemplate() {
+		return compiledTemplate;
+	}
+
+	/**
+	 * Writes this template in a compact binary form: format version, then length and bytes of the source encoded in
+	 * UTF-8, the length being stored as a variable-length integer. The structure is not stored: it is derived from
+	 * the source by {@link #readFrom(DataInput)}, in the same single scan as {@link TextResolver#parse(String)}, so
+	 * that it can neither be redundant nor disagree with the source.
+	 *
+	 * @param output the destination
+	 */
+	public void writeTo(final DataOutput output) throws IOException {
+		if (output == null) {
+			throw new IllegalArgumentException("Output cannot be null.");
+		}
+		final byte[] encodedSource = source.getBytes(StandardCharsets.UTF_8);
+		output.writeByte(FORMAT_VERSION);
+		writeVarInt(output, encodedSource.length);
+		output.write(encodedSource);
+	}
+
+	/**
+	 * Reads a template written by {@link #writeTo(DataOutput)}. The input may be untrusted: the result is the same
+	 * as {@link TextResolver#parse(String)} of the stored source.
+	 *
+	 * @param input the source of the binary form
+	 * @return the template
+	 * @throws IOException if the input cannot be read or does not hold a parsed template
+	 */
+	public static ParsedTemplate readFrom(final DataInput input) throws IOException {
+		if (input == null) {
+			throw new IllegalArgumentException("Input cannot be null.");
+		}
+		final int version = input.readUnsignedByte();
+		if (version != FORMAT_VERSION) {
+			throw new IOException("Unsupported parsed template version: " + version + ".");
+		}
+		return TextResolver.parse(readSource(input, readVarInt(input)));
+	}
+
+	/**
+	 * Two templates are equal when their sources are, since parsing is deterministic.
+	 */
+	@Override
+	public boolean equals(final Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof ParsedTemplate)) {
+			return false;
+		}
+		return source.equals(((ParsedTemplate) o).source);
+	}
+
+	@Override
+	public int hashCode() {
+		return source.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return source;
+	}
+
+	/**
+	 * Reads the source in chunks, so that memory grows with the bytes actually read rather than with the declared
+	 * length, which an untrusted input may set to anything.
+	 */
+	private static String readSource(final DataInput input, final int length) throws IOException {
+		final ByteArrayOutputStream encodedSource = new ByteArrayOutputStream(Math.min(length, READ_CHUNK_SIZE));
+		final byte[] chunk = new byte[Math.min(length, READ_CHUNK_SIZE)];
+		int remaining = length;
+		while (remaining > 0) {
+			final int chunkLength = Math.min(remaining, chunk.length);
+			// throws EOFException if the input is shorter than declared
+			input.readFully(chunk, 0, chunkLength);
+			encodedSource.write(chunk, 0, chunkLength);
+			remaining -= chunkLength;
+		}
+		return new String(encodedSource.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	private static void writeVarInt(final DataOutput output, final int value) throws IOException {
+		int remaining = value;
+		while ((remaining & ~0x7F) != 0) {
+			output.writeByte((remaining & 0x7F) | 0x80);
+			remaining >>>= 7;
+		}
+		output.writeByte(remaining);
+	}
+
+	private static int readVarInt(final DataInput input) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+			final int b = input.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				if (value < 0) {
+					break;
+				}
+				return value;
+			}
+		}
+		throw new IOException("Malformed parsed template: invalid length.");
+	}
+
+}
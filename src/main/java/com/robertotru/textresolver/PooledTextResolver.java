@@ -0,0 +1,161 @@
+package com.robertotru.textresolver;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Resolver rendering messages into reused buffers, according to its {@link BufferStrategy}, so that the buffer of
+ * {@link TextResolver#resolve(String, Object...)} is neither allocated nor grown at each call.
+ * Buffers larger than {@value #MAXIMUM_RETAINED_CAPACITY} characters are not retained, so that a single huge message
+ * does not keep its buffer alive.
+ * A message resolved while the buffer of the thread is in use, e.g. by an argument resolving a message from its
+ * {@code toString()}, is rendered into a new buffer.
+ * Instances are thread safe and meant to be shared, e.g. one per application.
+ */
+public class PooledTextResolver {
+
+	static final int MAXIMUM_RETAINED_CAPACITY = 8192;
+	private static final int INITIAL_CAPACITY = 256;
+	/**
+	 * Distance between two stripes in the array of buffers, so that each stripe sits on its own cache line.
+	 */
+	private static final int STRIPE_PADDING = 16;
+	private static final int NUMBER_OF_PROBES = 2;
+
+	private final BufferStrategy bufferStrategy;
+	private final ThreadLocal<BufferSlot> threadLocalBuffers;
+	private final AtomicReferenceArray<StringBuilder> stripes;
+	private final int stripeMask;
+
+	/**
+	 * Same as {@link #PooledTextResolver(BufferStrategy, int)}, with two stripes per available processor.
+	 */
+	public PooledTextResolver(final BufferStrategy bufferStrategy) {
+		this(bufferStrategy, 2 * Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param bufferStrategy  how buffers are obtained
+	 * @param numberOfStripes the number of buffers of the striped pool, rounded up to a power of two; ignored when
+	 *                        the strategy does not use the pool
+	 */
+	public PooledTextResolver(final BufferStrategy bufferStrategy, final int numberOfStripes) {
+		if (bufferStrategy == null) {
+			throw new IllegalArgumentException("Buffer strategy cannot be null.");
+		}
+		if (numberOfStripes <= 0) {
+			throw new IllegalArgumentException("Number of stripes must be positive.");
+		}
+		this.bufferStrategy = bufferStrategy;
+		this.threadLocalBuffers = bufferStrategy == BufferStrategy.THREAD_LOCAL
+				|| bufferStrategy == BufferStrategy.ADAPTIVE
+				? ThreadLocal.withInitial(BufferSlot::new)
+				: null;
+		if (bufferStrategy == BufferStrategy.STRIPED_POOL || bufferStrategy == BufferStrategy.ADAPTIVE) {
+			final int roundedNumberOfStripes = Math.max(1, Integer.highestOneBit(numberOfStripes - 1) << 1);
+			this.stripes = new AtomicReferenceArray<>(roundedNumberOfStripes * STRIPE_PADDING);
+			this.stripeMask = roundedNumberOfStripes - 1;
+		} else {
+			this.stripes = null;
+			this.stripeMask = 0;
+		}
+	}
+
+	public BufferStrategy getBufferStrategy() {
+		return bufferStrategy;
+	}
+
+	/**
+	 * Same as {@link TextResolver#resolve(String, Object...)}.
+	 */
+	public String resolve(final String messageTemplate, final Object... arguments) {
+		if (bufferStrategy == BufferStrategy.NONE) {
+			return TextResolver.resolve(messageTemplate, arguments);
+		}
+
+		final boolean striped = isStriped();
+		final StringBuilder buffer = striped ? takeFromStripes() : takeFromThread();
+		try {
+			return TextResolver.resolveTo(buffer, messageTemplate, arguments).toString();
+		} finally {
+			release(buffer, striped);
+		}
+	}
+
+	/**
+	 * Same as {@link TextResolver#resolve(ParsedTemplate, Object...)}.
+	 */
+	public String resolve(final ParsedTemplate template, final Object... arguments) {
+		if (bufferStrategy == BufferStrategy.NONE) {
+			return TextResolver.resolve(template, arguments);
+		}
+
+		final boolean striped = isStriped();
+		final StringBuilder buffer = striped ? takeFromStripes() : takeFromThread();
+		try {
+			return TextResolver.resolveTo(buffer, template, arguments).toString();
+		} finally {
+			release(buffer, striped);
+		}
+	}
+
+	private boolean isStriped() {
+		return bufferStrategy == BufferStrategy.STRIPED_POOL
+				|| bufferStrategy == BufferStrategy.ADAPTIVE && VirtualThreads.isVirtual(Thread.currentThread());
+	}
+
+	private StringBuilder takeFromThread() {
+		final BufferSlot slot = threadLocalBuffers.get();
+		final StringBuilder buffer = slot.buffer;
+		if (buffer == null) {
+			return new StringBuilder(INITIAL_CAPACITY);
+		}
+		slot.buffer = null;
+		return buffer;
+	}
+
+	private StringBuilder takeFromStripes() {
+		final int homeStripe = homeStripe();
+		for (int i = 0; i < NUMBER_OF_PROBES; i++) {
+			final int index = ((homeStripe + i) & stripeMask) * STRIPE_PADDING;
+			final StringBuilder buffer = stripes.get(index);
+			if (buffer != null && stripes.compareAndSet(index, buffer, null)) {
+				return buffer;
+			}
+		}
+		return new StringBuilder(INITIAL_CAPACITY);
+	}
+
+	private void release(final StringBuilder buffer, final boolean striped) {
+		if (buffer.capacity() > MAXIMUM_RETAINED_CAPACITY) {
+			return;
+		}
+		buffer.setLength(0);
+		if (!striped) {
+			// a nested call may have already given a buffer back, which is then kept instead
+			final BufferSlot slot = threadLocalBuffers.get();
+			if (slot.buffer == null) {
+				slot.buffer = buffer;
+			}
+			return;
+		}
+		final int homeStripe = homeStripe();
+		for (int i = 0; i < NUMBER_OF_PROBES; i++) {
+			final int index = ((homeStripe + i) & stripeMask) * STRIPE_PADDING;
+			if (stripes.get(index) == null && stripes.compareAndSet(index, null, buffer)) {
+				return;
+			}
+		}
+	}
+
+	@SuppressWarnings("deprecation") // Thread.threadId() is not available before JDK 19
+	private static int homeStripe() {
+		final long id = Thread.currentThread().getId();
+		// spreads consecutive thread ids across stripes
+		return (int) (id ^ (id >>> 32)) * 0x9E3779B9 >>> 16;
+	}
+
+	private static final class BufferSlot {
+		StringBuilder buffer;
+	}
+
+}
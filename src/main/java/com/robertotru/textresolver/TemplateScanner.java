@@ -0,0 +1,92 @@
+package com.robertotru.textresolver;
+
+/**
+ * Cursor over the {@code {}} pairs of a message template, holding the only definition of the escaping rules, shared
+ * by {@link TextResolver#resolve(String, Object...)}, {@link TextResolver#parse(String)} and
+ * {@link TextResolver#countPlaceholders(String)}:
+ * <ul>
+ *     <li>{@code {}} is a placeholder</li>
+ *     <li>{@code \{}} is the text {@code {}}, the escape character being dropped</li>
+ *     <li>{@code \\{}} is the text {@code \} followed by a placeholder, the second escape character being
+ *     dropped</li>
+ * </ul>
+ * A scanner is meant for a single scan of a single template, and does not escape the method creating it.
+ */
+final class TemplateScanner {
+
+	private static final String PAIR = "{}";
+	private static final char ESCAPE_CHAR = '\\';
+
+	private final String messageTemplate;
+	private int searchIndex;
+	private int literalStartIndex;
+	private int literalEndIndex;
+	private int delimiterStartIndex;
+	private boolean placeholder;
+
+	TemplateScanner(final String messageTemplate) {
+		this.messageTemplate = messageTemplate;
+	}
+
+	/**
+	 * Moves to the next {@code {}} pair, be it a placeholder or an escaped one.
+	 *
+	 * @return {@code false} when there are no more pairs, in which case the text left goes from
+	 * {@link #literalStartIndex()} to the end of the template
+	 */
+	boolean next() {
+		literalStartIndex = searchIndex;
+		delimiterStartIndex = messageTemplate.indexOf(PAIR, searchIndex);
+		if (delimiterStartIndex == -1) {
+			return false;
+		}
+		searchIndex = delimiterStartIndex + PAIR.length();
+		if (delimiterStartIndex == 0 || messageTemplate.charAt(delimiterStartIndex - 1) != ESCAPE_CHAR) {
+			// the placeholder is not escaped
+			literalEndIndex = delimiterStartIndex;
+			placeholder = true;
+		} else {
+			// the escape character is dropped: either it escapes the pair, or it is escaped itself
+			literalEndIndex = delimiterStartIndex - 1;
+			placeholder = delimiterStartIndex >= 2 && messageTemplate.charAt(delimiterStartIndex - 2) == ESCAPE_CHAR;
+		}
+		return true;
+	}
+
+	/**
+	 * @return the start of the text preceding the current pair, which follows the previous pair
+	 */
+	int literalStartIndex() {
+		return literalStartIndex;
+	}
+
+	/**
+	 * @return the end, exclusive, of the text preceding the current pair, which excludes the dropped escape
+	 * character
+	 */
+	int literalEndIndex() {
+		return literalEndIndex;
+	}
+
+	/**
+	 * @return the offset in the template of the opening brace of the current pair
+	 */
+	int delimiterStartIndex() {
+		return delimiterStartIndex;
+	}
+
+	/**
+	 * @return {@code true} if the current pair is a placeholder, {@code false} if it is the escaped text {@code {}}
+	 */
+	boolean isPlaceholder() {
+		return placeholder;
+	}
+
+	/**
+	 * @return {@code true} if an escape character precedes the current pair, at {@link #literalEndIndex()}
+	 */
+	boolean isEscaped() {
+		return literalEndIndex != delimiterStartIndex;
+	}
+
+}
@@ -1,7 +1,20 @@
 package com.robertotru.textresolver;
 
-import java.util.HashMap;
+import java.lang.reflect.Method;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /**
  * Formatter for strings based on the well known {@code {}} placeholder.
@@ -10,7 +23,43 @@ import java.util.Map;
 public class TextResolver {
 
 	private static final String PLACEHOLDER = "{}";
-	private static final char ESCAPE_CHAR = '\\';
+	static final int ESTIMATED_ARGUMENT_LENGTH = 7;
+
+	/**
+	 * Concurrent collections whose {@link Object#toString()} is declared by the class itself, but prints the same
+	 * text as the one of {@link AbstractMap}.
+	 */
+	private static final Set<Class<?>> STANDARD_TO_STRING_DECLARING_CLASSES = Collections.singleton(
+			ConcurrentHashMap.class);
+
+	/**
+	 * Tells whether a collection or a map can be rendered element by element instead of via
+	 * {@link Object#toString()}. This is the case when its {@link Object#toString()} is the one of
+	 * {@link AbstractCollection} or {@link AbstractMap}, which only walk the elements: delegating wrappers, such as
+	 * the unmodifiable, checked and synchronized ones, and any other {@link Iterable} are rendered via
+	 * {@link Object#toString()}, so that walking them has no side effect {@link Object#toString()} would not have.
+	 * The elements are rendered as arguments are, hence the output differs from {@link Object#toString()} for nested
+	 * arrays, printed as their content rather than e.g. {@code [I@1b6d3586}, and for collections containing
+	 * themselves, printed as {@code [...]} or {@code {...}} rather than {@code (this Collection)}.
+	 */
+	private static final ClassValue<Boolean> HAS_STANDARD_TO_STRING = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(final Class<?> type) {
+			if (type == Optional.class) {
+				return true;
+			}
+			final Method toString;
+			try {
+				toString = type.getMethod("toString");
+			} catch (NoSuchMethodException e) {
+				return false;
+			}
+			final Class<?> declaringClass = toString.getDeclaringClass();
+			return declaringClass == AbstractCollection.class
+					|| declaringClass == AbstractMap.class
+					|| STANDARD_TO_STRING_DECLARING_CLASSES.contains(declaringClass);
+		}
+	};
 
 	/**
 	 * Formats a Message template by replacing the instances of {@code {}} with the {@link #toString()} value of each
@@ -32,65 +81,280 @@ public class TextResolver {
 	}
 
 	public static CharSequence resolveAsCharSequence(final String messageTemplate, final Object... arguments) {
+		checkTemplateAndArguments(messageTemplate, arguments);
+
+		final StringBuilder stringBuilder = new StringBuilder(messageTemplate.length()
+				+ arguments.length * ESTIMATED_ARGUMENT_LENGTH);
+		appendResolved(stringBuilder, messageTemplate, arguments, arguments.length);
+		return stringBuilder;
+	}
+
+	/**
+	 * Same as {@link #resolve(String, Object...)}, but appends the formatted message to the given builder, so that
+	 * callers writing many messages can reuse the same buffer.
+	 * If an exception is thrown, part of the message may have already been appended.
+	 *
+	 * @param stringBuilder   the builder the message is appended to
+	 * @param messageTemplate the template to format
+	 * @param arguments       one argument for each placeholder
+	 * @return the given builder
+	 */
+	public static StringBuilder resolveTo(final StringBuilder stringBuilder,
+	                                      final String messageTemplate,
+	                                      final Object... arguments) {
+		if (stringBuilder == null) {
+			throw new IllegalArgumentException("String builder cannot be null.");
+		}
+		checkTemplateAndArguments(messageTemplate, arguments);
+
+		appendResolved(stringBuilder, messageTemplate, arguments, arguments.length);
+		return stringBuilder;
+	}
+
+	/**
+	 * Same as {@link #resolveTo(StringBuilder, String, Object...)}, but only the first {@code numberOfArguments}
+	 * elements of the array are arguments, so that callers can reuse an array longer than the message needs, e.g.
+	 * the parameters of a reusable log message.
+	 *
+	 * @param stringBuilder     the builder the message is appended to
+	 * @param messageTemplate   the template to format
+	 * @param arguments         an array starting with one argument for each placeholder
+	 * @param numberOfArguments the number of elements of the array that are arguments
+	 * @return the given builder
+	 */
+	public static StringBuilder resolveArgumentsTo(final StringBuilder stringBuilder,
+	                                               final String messageTemplate,
+	                                               final Object[] arguments,
+	                                               final int numberOfArguments) {
+		if (stringBuilder == null) {
+			throw new IllegalArgumentException("String builder cannot be null.");
+		}
+		checkTemplateAndArguments(messageTemplate, arguments);
+		if (numberOfArguments < 0 || numberOfArguments > arguments.length) {
+			throw new IllegalArgumentException("Number of arguments must be between 0 and the length of the array.");
+		}
+
+		appendResolved(stringBuilder, messageTemplate, arguments, numberOfArguments);
+		return stringBuilder;
+	}
+
+	private static void checkTemplateAndArguments(final String messageTemplate, final Object[] arguments) {
 		if (messageTemplate == null) {
 			throw new IllegalArgumentException("Message template cannot be null.");
 		}
 		if (arguments == null) {
 			throw new IllegalArgumentException("Array of arguments cannot be null.");
 		}
+	}
 
-		final int numberOfArguments = arguments.length;
-		final StringBuilder stringBuilder = new StringBuilder(messageTemplate.length() + numberOfArguments * 7);
+	private static void appendResolved(final StringBuilder stringBuilder,
+	                                   final String messageTemplate,
+	                                   final Object[] arguments,
+	                                   final int numberOfArguments) {
+		if (hasLazyArgument(arguments, numberOfArguments)) {
+			// the count is otherwise checked while rendering, which would compute lazy arguments of a failing call
+			checkArity(countPlaceholders(messageTemplate), numberOfArguments);
+		}
 
-		int startSearchIndex = 0;
-		int delimiterStartIndex;
+		final TemplateScanner scanner = new TemplateScanner(messageTemplate);
 		int argumentNumber = 0;
-		do {
-			delimiterStartIndex = messageTemplate.indexOf(PLACEHOLDER, startSearchIndex);
-
-			if (delimiterStartIndex == -1) {
-				//<editor-fold desc="There are no more {} to be replaced">
-				if (startSearchIndex == 0) {
-					// oh, Message template was just a message
-					checkUsedArguments(argumentNumber, numberOfArguments);
-				}
-				//</editor-fold>
+		while (scanner.next()) {
+			stringBuilder.append(messageTemplate, scanner.literalStartIndex(), scanner.literalEndIndex());
+			if (scanner.isPlaceholder()) {
+				checkArgumentExists(argumentNumber, numberOfArguments);
+				appendParameter(stringBuilder, arguments[argumentNumber++]);
 			} else {
-				if (delimiterStartIndex == 0
-						|| messageTemplate.charAt(delimiterStartIndex - 1) != ESCAPE_CHAR) {
-					// the placeholder is not escaped
-					stringBuilder.append(messageTemplate, startSearchIndex, delimiterStartIndex);
-					checkArgumentExists(argumentNumber, numberOfArguments);
-					appendParameter(stringBuilder, arguments[argumentNumber++]);
-					startSearchIndex = delimiterStartIndex + 2;
-				} else {
-					// the placeholder is escaped
-					if (delimiterStartIndex >= 2 && messageTemplate.charAt(delimiterStartIndex - 2) == ESCAPE_CHAR) {
-						// double escaped
-						stringBuilder.append(messageTemplate, startSearchIndex, delimiterStartIndex - 1);
-						checkArgumentExists(argumentNumber, numberOfArguments);
-						appendParameter(stringBuilder, arguments[argumentNumber++]);
-					} else {
-						// is escaped, so we just replace the \{} with {}
-						stringBuilder.append(messageTemplate, startSearchIndex, delimiterStartIndex - 1);
-						stringBuilder.append(messageTemplate, delimiterStartIndex, delimiterStartIndex + 2);
-					}
-					startSearchIndex = delimiterStartIndex + 2;
-				}
-
+				stringBuilder.append(PLACEHOLDER);
 			}
-
 		}
-		while (delimiterStartIndex != -1);
 
 		checkUsedArguments(argumentNumber, numberOfArguments);
 
 		// append the characters following the last {} pair.
-		stringBuilder.append(messageTemplate, startSearchIndex, messageTemplate.length());
-		return stringBuilder;
+		stringBuilder.append(messageTemplate, scanner.literalStartIndex(), messageTemplate.length());
+	}
+
+	private static boolean hasLazyArgument(final Object[] arguments, final int numberOfArguments) {
+		for (int i = 0; i < numberOfArguments; i++) {
+			if (arguments[i] instanceof LazyArgument) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Counts the placeholders of a template without resolving it, e.g. for a logging bridge to tell whether a trailing
+	 * {@link Throwable} is an argument of the message or the throwable of the log event.
+	 * Escaping rules are the same as in {@link #resolve(String, Object...)}.
+	 *
+	 * @param messageTemplate the template
+	 * @return the number of unescaped placeholders, i.e. the number of arguments the template expects
+	 */
+	public static int countPlaceholders(final String messageTemplate) {
+		if (messageTemplate == null) {
+			throw new IllegalArgumentException("Message template cannot be null.");
+		}
+		final TemplateScanner scanner = new TemplateScanner(messageTemplate);
+		int numberOfPlaceholders = 0;
+		while (scanner.next()) {
+			if (scanner.isPlaceholder()) {
+				numberOfPlaceholders++;
+			}
+		}
+		return numberOfPlaceholders;
+	}
+
+	/**
+	 * Parses a message template once, so that it can be resolved many times without scanning it again.
+	 * Escaping rules are the same as in {@link #resolve(String, Object...)}.
+	 *
+	 * @param messageTemplate the template to parse
+	 * @return the compiled template, whose arity is the number of unescaped placeholders
+	 */
+	public static CompiledTemplate compile(final String messageTemplate) {
+		return parse(messageTemplate).getCompiledTemplate();
+	}
+
+	/**
+	 * Parses a message template in a single scan, exposing its structure: arity, placeholder offsets, escape sites
+	 * and literal segments. Unlike {@link #resolve(String, Object...)}, no argument is needed to know the arity of
+	 * the template.
+	 * Escaping rules are the same as in {@link #resolve(String, Object...)}.
+	 *
+	 * @param messageTemplate the template to parse
+	 * @return the parsed template, accepted by {@link #resolve(ParsedTemplate, Object...)}
+	 */
+	public static ParsedTemplate parse(final String messageTemplate) {
+		if (messageTemplate == null) {
+			throw new IllegalArgumentException("Message template cannot be null.");
+		}
+
+		final StringBuilder literal = new StringBuilder(messageTemplate.length());
+		int[] literalOffsets = new int[8];
+		int[] placeholderOffsets = new int[8];
+		int arity = 0;
+		int[] escapeSites = new int[0];
+		int numberOfEscapes = 0;
+
+		final TemplateScanner scanner = new TemplateScanner(messageTemplate);
+		while (scanner.next()) {
+			literal.append(messageTemplate, scanner.literalStartIndex(), scanner.literalEndIndex());
+			if (scanner.isEscaped()) {
+				if (numberOfEscapes == escapeSites.length) {
+					escapeSites = Arrays.copyOf(escapeSites, Math.max(4, numberOfEscapes * 2));
+				}
+				escapeSites[numberOfEscapes++] = scanner.literalEndIndex();
+			}
+			if (scanner.isPlaceholder()) {
+				if (arity == placeholderOffsets.length) {
+					placeholderOffsets = Arrays.copyOf(placeholderOffsets, arity * 2);
+					literalOffsets = Arrays.copyOf(literalOffsets, arity * 2);
+				}
+				placeholderOffsets[arity] = scanner.delimiterStartIndex();
+				literalOffsets[arity++] = literal.length();
+			} else {
+				literal.append(PLACEHOLDER);
+			}
+		}
+		literal.append(messageTemplate, scanner.literalStartIndex(), messageTemplate.length());
+
+		return new ParsedTemplate(messageTemplate,
+				Arrays.copyOf(placeholderOffsets, arity),
+				Arrays.copyOf(escapeSites, numberOfEscapes),
+				new CompiledTemplate(literal.toString(), Arrays.copyOf(literalOffsets, arity)));
+	}
+
+	/**
+	 * Same as {@link #resolve(String, Object...)}, without parsing the template again.
+	 *
+	 * @param template  the parsed template
+	 * @param arguments one argument for each placeholder
+	 * @return the formatted message
+	 */
+	public static String resolve(final ParsedTemplate template, final Object... arguments) {
+		return compiledTemplateOf(template).resolve(arguments);
 	}
 
-	private static void checkArgumentExists(int argumentNumber, int numberOfArguments) {
+	public static CharSequence resolveAsCharSequence(final ParsedTemplate template, final Object... arguments) {
+		return compiledTemplateOf(template).resolveAsCharSequence(arguments);
+	}
+
+	/**
+	 * Same as {@link #resolveTo(StringBuilder, String, Object...)}, without parsing the template again.
+	 * Arguments are checked before anything is appended.
+	 *
+	 * @param stringBuilder the builder the message is appended to
+	 * @param template      the parsed template
+	 * @param arguments     one argument for each placeholder
+	 * @return the given builder
+	 */
+	public static StringBuilder resolveTo(final StringBuilder stringBuilder,
+	                                      final ParsedTemplate template,
+	                                      final Object... arguments) {
+		if (stringBuilder == null) {
+			throw new IllegalArgumentException("String builder cannot be null.");
+		}
+		return compiledTemplateOf(template).resolveTo(stringBuilder, arguments);
+	}
+
+	private static CompiledTemplate compiledTemplateOf(final ParsedTemplate template) {
+		if (template == null) {
+			throw new IllegalArgumentException("Message template cannot be null.");
+		}
+		return template.getCompiledTemplate();
+	}
+
+	/**
+	 * Partially applies a message template: the given arguments replace the leading placeholders and are rendered
+	 * right away, while the remaining placeholders are left for
+	 * {@link CompiledTemplate#resolve(Object...)}.
+	 * Examples:
+	 * <ul>
+	 *     <li>{@code bind("[{}] {} took {} ms", "billing").resolve("charge", 12)} returns
+	 *     {@code "[billing] charge took 12 ms"}</li>
+	 *     <li>{@code bind("{} \\{} {}", "{}").resolve("x")} returns {@code "{} {} x"}</li>
+	 * </ul>
+	 *
+	 * @param messageTemplate the template to parse
+	 * @param fixedArguments  the values of the leading placeholders
+	 * @return a compiled template whose arity is reduced by the number of fixed arguments
+	 */
+	public static CompiledTemplate bind(final String messageTemplate, final Object... fixedArguments) {
+		return compile(messageTemplate).bind(fixedArguments);
+	}
+
+	/**
+	 * Wraps an argument that is expensive to compute, so that it is computed only if and when its placeholder is
+	 * rendered, and at most once.
+	 * When the number of arguments does not match the number of placeholders, the lazy arguments given to a resolve
+	 * method are not computed, since the number is then checked before rendering. Lazy arguments nested in arrays or
+	 * collections get the same guarantee only from {@link CompiledTemplate} and {@link ParsedTemplate}: a template
+	 * given as a {@link String} without any lazy argument of its own is checked while rendering.
+	 * Example: {@code resolve("Payload {}", lazy(() -> serialize(payload)))}.
+	 *
+	 * @param supplier the supplier of the argument value
+	 * @return an argument accepted by every resolve method of this library
+	 */
+	public static LazyArgument lazy(final Supplier<?> supplier) {
+		if (supplier == null) {
+			throw new IllegalArgumentException("Supplier cannot be null.");
+		}
+		return new LazyArgument(supplier);
+	}
+
+	/**
+	 * Checks that there is exactly one argument per placeholder, failing with the same message as
+	 * {@link #resolve(String, Object...)} would while rendering.
+	 */
+	static void checkArity(final int arity, final int numberOfArguments) {
+		if (numberOfArguments < arity) {
+			checkArgumentExists(numberOfArguments, numberOfArguments);
+		}
+		checkUsedArguments(arity, numberOfArguments);
+	}
+
+	static void checkArgumentExists(int argumentNumber, int numberOfArguments) {
 		if (argumentNumber >= numberOfArguments) {
 			final StringBuilder messageBuilder = new StringBuilder();
 			if (argumentNumber == 0) {
@@ -110,7 +374,7 @@ public class TextResolver {
 		}
 	}
 
-	private static void checkUsedArguments(final int argumentNumber, final int numberOfArguments) {
+	static void checkUsedArguments(final int argumentNumber, final int numberOfArguments) {
 		if (argumentNumber < numberOfArguments) {
 			final StringBuilder messageBuilder = new StringBuilder();
 			messageBuilder.append("Expected ")
@@ -140,13 +404,18 @@ public class TextResolver {
 		}
 	}
 
-	private static void appendParameter(final StringBuilder stringBuilder,
-	                                    final Object object) {
+	static void appendParameter(final StringBuilder stringBuilder,
+	                            final Object argument) {
+		final Object object = evaluate(argument);
 		if (appendObject(stringBuilder, object)) {
 			return;
 		}
 
-		appendObjectOrArray(stringBuilder, object, new HashMap<>());
+		appendObjectOrArray(stringBuilder, object, new IdentityHashMap<>());
+	}
+
+	private static Object evaluate(final Object argument) {
+		return argument instanceof LazyArgument ? ((LazyArgument) argument).get() : argument;
 	}
 
 	private static boolean appendObject(final StringBuilder stringBuilder, final Object object) {
@@ -154,16 +423,64 @@ public class TextResolver {
 			stringBuilder.append("null");
 			return true;
 		}
-		if (!object.getClass().isArray()) {
+		if (object instanceof String) {
+			stringBuilder.append((String) object);
+			return true;
+		}
+		if (appendBoxedPrimitive(stringBuilder, object)) {
+			return true;
+		}
+		if (object instanceof StringBuffer) {
+			// StringBuilder reads a StringBuffer without taking its lock, unlike StringBuffer#toString()
+			synchronized (object) {
+				stringBuilder.append((StringBuffer) object);
+			}
+			return true;
+		}
+		if (object instanceof CharSequence) {
+			// unlike append(Object), no intermediate String is created
+			stringBuilder.append((CharSequence) object);
+			return true;
+		}
+		if (object instanceof AppendableTo) {
+			((AppendableTo) object).appendTo(stringBuilder);
+			return true;
+		}
+		if (!object.getClass().isArray() && !isRenderedNatively(object)) {
 			stringBuilder.append(object);
 			return true;
 		}
 		return false;
 	}
 
+	/**
+	 * Appends boxed primitives through the primitive overloads, which produce the same text as
+	 * {@link Object#toString()} without creating a temporary {@link String}.
+	 */
+	private static boolean appendBoxedPrimitive(final StringBuilder stringBuilder, final Object object) {
+		final Class<?> type = object.getClass();
+		if (type == Integer.class || type == Short.class || type == Byte.class) {
+			stringBuilder.append(((Number) object).intValue());
+		} else if (type == Long.class) {
+			stringBuilder.append(((Long) object).longValue());
+		} else if (type == Boolean.class) {
+			stringBuilder.append(((Boolean) object).booleanValue());
+		} else if (type == Character.class) {
+			stringBuilder.append(((Character) object).charValue());
+		} else {
+			return false;
+		}
+		return true;
+	}
+
+	private static boolean isRenderedNatively(final Object object) {
+		return (object instanceof Collection || object instanceof Map || object instanceof Optional)
+				&& HAS_STANDARD_TO_STRING.get(object.getClass());
+	}
+
 	private static void appendObjectOrArray(final StringBuilder stringBuilder,
 	                                        final Object object,
-	                                        final Map<Object[], Object> alreadyVisited) {
+	                                        final Map<Object, Object> alreadyVisited) {
 		if (appendObject(stringBuilder, object)) {
 			return;
 		}
@@ -184,8 +501,14 @@ public class TextResolver {
 			appendByteArray(stringBuilder, (byte[]) object);
 		} else if (object instanceof char[]) {
 			appendCharArray(stringBuilder, (char[]) object);
-		} else {
+		} else if (object instanceof Object[]) {
 			objectArrayAppend(stringBuilder, (Object[]) object, alreadyVisited);
+		} else if (object instanceof Map) {
+			appendMap(stringBuilder, (Map<?, ?>) object, alreadyVisited);
+		} else if (object instanceof Optional) {
+			appendOptional(stringBuilder, (Optional<?>) object, alreadyVisited);
+		} else {
+			appendCollection(stringBuilder, (Collection<?>) object, alreadyVisited);
 		}
 
 	}
@@ -288,13 +611,13 @@ public class TextResolver {
 
 	private static void objectArrayAppend(final StringBuilder stringBuilder,
 	                                      final Object[] objects,
-	                                      final Map<Object[], Object> alreadyVisited) {
+	                                      final Map<Object, Object> alreadyVisited) {
 		stringBuilder.append('[');
 		if (!alreadyVisited.containsKey(objects)) {
 			alreadyVisited.put(objects, null);
 			final int numberOfElements = objects.length;
 			for (int i = 0; i < numberOfElements; i++) {
-				appendObjectOrArray(stringBuilder, objects[i], alreadyVisited);
+				appendObjectOrArray(stringBuilder, evaluate(objects[i]), alreadyVisited);
 				if (i != numberOfElements - 1) {
 					stringBuilder.append(", ");
 				}
@@ -307,4 +630,72 @@ public class TextResolver {
 		stringBuilder.append(']');
 	}
 
+	private static void appendCollection(final StringBuilder stringBuilder,
+	                                     final Collection<?> collection,
+	                                     final Map<Object, Object> alreadyVisited) {
+		stringBuilder.append('[');
+		if (!alreadyVisited.containsKey(collection)) {
+			alreadyVisited.put(collection, null);
+			if (collection instanceof List && collection instanceof RandomAccess) {
+				final List<?> list = (List<?>) collection;
+				final int numberOfElements = list.size();
+				for (int i = 0; i < numberOfElements; i++) {
+					appendObjectOrArray(stringBuilder, evaluate(list.get(i)), alreadyVisited);
+					if (i != numberOfElements - 1) {
+						stringBuilder.append(", ");
+					}
+				}
+			} else {
+				final Iterator<?> iterator = collection.iterator();
+				while (iterator.hasNext()) {
+					appendObjectOrArray(stringBuilder, evaluate(iterator.next()), alreadyVisited);
+					if (iterator.hasNext()) {
+						stringBuilder.append(", ");
+					}
+				}
+			}
+			// allow repeats in siblings
+			alreadyVisited.remove(collection);
+		} else {
+			stringBuilder.append("...");
+		}
+		stringBuilder.append(']');
+	}
+
+	private static void appendMap(final StringBuilder stringBuilder,
+	                              final Map<?, ?> map,
+	                              final Map<Object, Object> alreadyVisited) {
+		stringBuilder.append('{');
+		if (!alreadyVisited.containsKey(map)) {
+			alreadyVisited.put(map, null);
+			final Iterator<? extends Map.Entry<?, ?>> iterator = map.entrySet().iterator();
+			while (iterator.hasNext()) {
+				final Map.Entry<?, ?> entry = iterator.next();
+				appendObjectOrArray(stringBuilder, evaluate(entry.getKey()), alreadyVisited);
+				stringBuilder.append('=');
+				appendObjectOrArray(stringBuilder, evaluate(entry.getValue()), alreadyVisited);
+				if (iterator.hasNext()) {
+					stringBuilder.append(", ");
+				}
+			}
+			// allow repeats in siblings
+			alreadyVisited.remove(map);
+		} else {
+			stringBuilder.append("...");
+		}
+		stringBuilder.append('}');
+	}
+
+	private static void appendOptional(final StringBuilder stringBuilder,
+	                                   final Optional<?> optional,
+	                                   final Map<Object, Object> alreadyVisited) {
+		if (optional.isPresent()) {
+			stringBuilder.append("Optional[");
+			appendObjectOrArray(stringBuilder, evaluate(optional.get()), alreadyVisited);
+			stringBuilder.append(']');
+		} else {
+			stringBuilder.append("Optional.empty");
+		}
+	}
+
 }
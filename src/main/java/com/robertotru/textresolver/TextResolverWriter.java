@@ -0,0 +1,347 @@
+package com.robertotru.textresolver;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Writes formatted messages to a {@link Writer} or to a channel, such as a {@link java.nio.channels.FileChannel}.
+ * Messages are resolved straight into an internal buffer, which is reused and written out in large blocks, so that
+ * no intermediate {@link String} is created for each message.
+ * Examples:
+ * <pre>{@code
+ * try (TextResolverWriter writer = new TextResolverWriter(fileChannel, StandardCharsets.UTF_8)) {
+ *     writer.println("{};{};{}", id, name, amount);
+ * }
+ * }</pre>
+ * Instances are not thread safe.
+ */
+public class TextResolverWriter implements Flushable, Closeable {
+
+	private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+	private static final String LINE_SEPARATOR = System.lineSeparator();
+	// keeps the buffer capacity, threshold plus a quarter, within the maximum array size
+	private static final int MAXIMUM_FLUSH_THRESHOLD = Integer.MAX_VALUE / 2;
+
+	private final Sink sink;
+	private final int flushThreshold;
+	private final StringBuilder buffer;
+	private boolean closed;
+
+	/**
+	 * @param writer the destination of the messages
+	 */
+	public TextResolverWriter(final Writer writer) {
+		this(writer, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * @param writer     the destination of the messages
+	 * @param bufferSize the number of characters buffered before writing them out
+	 */
+	public TextResolverWriter(final Writer writer, final int bufferSize) {
+		this(new WriterSink(checkNotNull(writer, "Writer cannot be null.")), bufferSize);
+	}
+
+	/**
+	 * @param channel the destination of the messages
+	 * @param charset the charset used to encode the messages
+	 */
+	public TextResolverWriter(final GatheringByteChannel channel, final Charset charset) {
+		this(channel, charset, DEFAULT_BUFFER_SIZE, 1);
+	}
+
+	/**
+	 * @param channel         the destination of the messages
+	 * @param charset         the charset used to encode the messages
+	 * @param bufferSize      the size in bytes of each encoding buffer
+	 * @param numberOfBuffers the number of encoding buffers written by a single gathering write: messages are written
+	 *                        out once bufferSize * numberOfBuffers characters are buffered, so that a single write
+	 *                        covers several full buffers
+	 */
+	public TextResolverWriter(final GatheringByteChannel channel,
+	                          final Charset charset,
+	                          final int bufferSize,
+	                          final int numberOfBuffers) {
+		this(new ChannelSink(checkNotNull(channel, "Channel cannot be null."),
+				checkNotNull(charset, "Charset cannot be null."),
+				checkPositive(bufferSize, "Buffer size must be positive."),
+				checkPositive(numberOfBuffers, "Number of buffers must be positive.")),
+				(int) Math.min(MAXIMUM_FLUSH_THRESHOLD, (long) bufferSize * numberOfBuffers));
+	}
+
+	private TextResolverWriter(final Sink sink, final int flushThreshold) {
+		this.sink = sink;
+		this.flushThreshold = checkPositive(flushThreshold, "Buffer size must be positive.");
+		// leave room for the message that exceeds the threshold before it is written out
+		this.buffer = new StringBuilder(flushThreshold + flushThreshold / 4);
+	}
+
+	/**
+	 * Writes the message obtained by {@link TextResolver#resolve(String, Object...)}.
+	 * If the message cannot be resolved, nothing is written.
+	 *
+	 * @return this writer
+	 */
+	public TextResolverWriter print(final String messageTemplate, final Object... arguments) throws IOException {
+		ensureOpen();
+		final int mark = buffer.length();
+		try {
+			TextResolver.resolveTo(buffer, messageTemplate, arguments);
+		} catch (RuntimeException e) {
+			buffer.setLength(mark);
+			throw e;
+		}
+		return drainIfFull();
+	}
+
+	/**
+	 * Same as {@link #print(String, Object...)}, followed by the line separator.
+	 *
+	 * @return this writer
+	 */
+	public TextResolverWriter println(final String messageTemplate, final Object... arguments) throws IOException {
+		print(messageTemplate, arguments);
+		buffer.append(LINE_SEPARATOR);
+		return drainIfFull();
+	}
+
+	/**
+	 * Writes the message obtained by {@link CompiledTemplate#resolve(Object...)}.
+	 * If the message cannot be resolved, nothing is written.
+	 *
+	 * @return this writer
+	 */
+	public TextResolverWriter print(final CompiledTemplate template, final Object... arguments) throws IOException {
+		if (template == null) {
+			throw new IllegalArgumentException("Message template cannot be null.");
+		}
+		ensureOpen();
+		final int mark = buffer.length();
+		try {
+			template.resolveTo(buffer, arguments);
+		} catch (RuntimeException e) {
+			buffer.setLength(mark);
+			throw e;
+		}
+		return drainIfFull();
+	}
+
+	/**
+	 * Same as {@link #print(CompiledTemplate, Object...)}, followed by the line separator.
+	 *
+	 * @return this writer
+	 */
+	public TextResolverWriter println(final CompiledTemplate template, final Object... arguments) throws IOException {
+		print(template, arguments);
+		buffer.append(LINE_SEPARATOR);
+		return drainIfFull();
+	}
+
+	/**
+	 * Writes the message obtained by {@link TextResolver#resolve(ParsedTemplate, Object...)}.
+	 * If the message cannot be resolved, nothing is written.
+	 *
+	 * @return this writer
+	 */
+	public TextResolverWriter print(final ParsedTemplate template, final Object... arguments) throws IOException {
+		if (template == null) {
+			throw new IllegalArgumentException("Message template cannot be null.");
+		}
+		return print(template.getCompiledTemplate(), arguments);
+	}
+
+	/**
+	 * Same as {@link #print(ParsedTemplate, Object...)}, followed by the line separator.
+	 *
+	 * @return this writer
+	 */
+	public TextResolverWriter println(final ParsedTemplate template, final Object... arguments) throws IOException {
+		print(template, arguments);
+		buffer.append(LINE_SEPARATOR);
+		return drainIfFull();
+	}
+
+	/**
+	 * Writes out the buffered messages and flushes the destination.
+	 */
+	@Override
+	public void flush() throws IOException {
+		ensureOpen();
+		drain();
+		sink.flush();
+	}
+
+	/**
+	 * Writes out the buffered messages and closes the destination.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		try {
+			drain();
+		} finally {
+			closed = true;
+			sink.close();
+		}
+	}
+
+	private TextResolverWriter drainIfFull() throws IOException {
+		if (buffer.length() >= flushThreshold) {
+			drain();
+		}
+		return this;
+	}
+
+	private void drain() throws IOException {
+		if (buffer.length() > 0) {
+			sink.write(buffer);
+			buffer.setLength(0);
+		}
+	}
+
+	private void ensureOpen() throws IOException {
+		if (closed) {
+			throw new IOException("Writer is closed.");
+		}
+	}
+
+	private static <T> T checkNotNull(final T value, final String message) {
+		if (value == null) {
+			throw new IllegalArgumentException(message);
+		}
+		return value;
+	}
+
+	private static int checkPositive(final int value, final String message) {
+		if (value <= 0) {
+			throw new IllegalArgumentException(message);
+		}
+		return value;
+	}
+
+	private interface Sink extends Flushable, Closeable {
+		void write(StringBuilder buffer) throws IOException;
+	}
+
+	private static final class WriterSink implements Sink {
+		private final Writer writer;
+		private char[] chars = new char[0];
+
+		WriterSink(final Writer writer) {
+			this.writer = writer;
+		}
+
+		@Override
+		public void write(final StringBuilder buffer) throws IOException {
+			final int length = buffer.length();
+			if (chars.length < length) {
+				chars = new char[buffer.capacity()];
+			}
+			buffer.getChars(0, length, chars, 0);
+			writer.write(chars, 0, length);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			writer.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			writer.close();
+		}
+	}
+
+	private static final class ChannelSink implements Sink {
+		private final GatheringByteChannel channel;
+		private final CharsetEncoder encoder;
+		private final ByteBuffer[] byteBuffers;
+		private char[] chars = new char[0];
+		private CharBuffer charBuffer = CharBuffer.wrap(chars);
+
+		ChannelSink(final GatheringByteChannel channel,
+		            final Charset charset,
+		            final int bufferSize,
+		            final int numberOfBuffers) {
+			this.channel = channel;
+			// same behaviour as String#getBytes(Charset)
+			this.encoder = charset.newEncoder()
+					.onMalformedInput(CodingErrorAction.REPLACE)
+					.onUnmappableCharacter(CodingErrorAction.REPLACE);
+			this.byteBuffers = new ByteBuffer[numberOfBuffers];
+			for (int i = 0; i < numberOfBuffers; i++) {
+				byteBuffers[i] = ByteBuffer.allocateDirect(Math.max(bufferSize, 16));
+			}
+		}
+
+		@Override
+		public void write(final StringBuilder buffer) throws IOException {
+			final int length = buffer.length();
+			if (chars.length < length) {
+				chars = new char[buffer.capacity()];
+				charBuffer = CharBuffer.wrap(chars);
+			}
+			buffer.getChars(0, length, chars, 0);
+			charBuffer.clear();
+			charBuffer.limit(length);
+
+			encoder.reset();
+			int currentBuffer = 0;
+			byteBuffers[0].clear();
+			boolean flushing = false;
+			while (true) {
+				final CoderResult result = flushing
+						? encoder.flush(byteBuffers[currentBuffer])
+						: encoder.encode(charBuffer, byteBuffers[currentBuffer], true);
+				if (result.isUnderflow()) {
+					if (flushing) {
+						break;
+					}
+					flushing = true;
+				} else if (result.isOverflow()) {
+					if (++currentBuffer == byteBuffers.length) {
+						writeBuffers(currentBuffer);
+						currentBuffer = 0;
+					}
+					byteBuffers[currentBuffer].clear();
+				} else {
+					result.throwException();
+				}
+			}
+			writeBuffers(currentBuffer + 1);
+		}
+
+		private void writeBuffers(final int numberOfBuffers) throws IOException {
+			long remaining = 0;
+			for (int i = 0; i < numberOfBuffers; i++) {
+				byteBuffers[i].flip();
+				remaining += byteBuffers[i].remaining();
+			}
+			while (remaining > 0) {
+				remaining -= channel.write(byteBuffers, 0, numberOfBuffers);
+			}
+		}
+
+		@Override
+		public void flush() {
+			// channel writes are not buffered
+		}
+
+		@Override
+		public void close() throws IOException {
+			channel.close();
+		}
+	}
+
+}
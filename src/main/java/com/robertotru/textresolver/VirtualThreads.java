@@ -0,0 +1,75 @@
+package com.robertotru.textresolver;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Access to the virtual threads of JDK 21+, looked up reflectively since this library targets Java 8.
+ * On older runtimes, no thread is virtual.
+ */
+final class VirtualThreads {
+
+	private static final MethodHandle IS_VIRTUAL = findVirtual(Thread.class, "isVirtual",
+			MethodType.methodType(boolean.class));
+	private static final MethodHandle NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findStatic(Executors.class,
+			"newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+
+	private VirtualThreads() {
+	}
+
+	/**
+	 * @return whether the runtime supports virtual threads
+	 */
+	static boolean isSupported() {
+		return IS_VIRTUAL != null && NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+	}
+
+	/**
+	 * @return whether the given thread is virtual, always {@code false} before JDK 21
+	 */
+	static boolean isVirtual(final Thread thread) {
+		if (IS_VIRTUAL == null) {
+			return false;
+		}
+		try {
+			return (boolean) IS_VIRTUAL.invokeExact(thread);
+		} catch (Throwable e) {
+			throw new IllegalStateException("Cannot tell whether thread " + thread.getName() + " is virtual.", e);
+		}
+	}
+
+	/**
+	 * @return an executor starting a new virtual thread for each task
+	 * @throws UnsupportedOperationException if the runtime does not support virtual threads
+	 */
+	static ExecutorService newVirtualThreadPerTaskExecutor() {
+		if (!isSupported()) {
+			throw new UnsupportedOperationException("Virtual threads require JDK 21 or later.");
+		}
+		try {
+			return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invokeExact();
+		} catch (Throwable e) {
+			throw new IllegalStateException("Cannot create a virtual thread executor.", e);
+		}
+	}
+
+	private static MethodHandle findVirtual(final Class<?> type, final String name, final MethodType methodType) {
+		try {
+			return MethodHandles.publicLookup().findVirtual(type, name, methodType);
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			return null;
+		}
+	}
+
+	private static MethodHandle findStatic(final Class<?> type, final String name, final MethodType methodType) {
+		try {
+			return MethodHandles.publicLookup().findStatic(type, name, methodType);
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,63 @@
+package com.robertotru.textresolver.logging;
+
+/**
+ * Local stand-in for the "reusable message" SPI of garbage-free logging frameworks, such as Log4j 2
+ * {@code org.apache.logging.log4j.message.ReusableMessage}, so that this module builds without depending on any of
+ * them. A bridge to the actual SPI only has to delegate each method.
+ * <p>
+ * A reusable message is mutable: it is filled by the logging call, rendered by the appender via
+ * {@link #formatTo(StringBuilder)}, and then cleared so that it can be filled by the next call.
+ */
+public interface ReusableMessage {
+
+	/**
+	 * @return the message template
+	 */
+	String getFormat();
+
+	/**
+	 * @return a copy of the parameters
+	 */
+	Object[] getParameters();
+
+	/**
+	 * @return the number of parameters
+	 */
+	short getParameterCount();
+
+	/**
+	 * @return the throwable attached to the message, or {@code null}
+	 */
+	Throwable getThrowable();
+
+	/**
+	 * @return the formatted message, allocating a new {@link String}
+	 */
+	String getFormattedMessage();
+
+	/**
+	 * Appends the formatted message to the given buffer, without allocating intermediate objects.
+	 *
+	 * @param buffer the buffer of the appender
+	 */
+	void formatTo(StringBuilder buffer);
+
+	/**
+	 * Hands the parameters over to the caller, e.g. an asynchronous logger, replacing them with the given array.
+	 *
+	 * @param emptyReplacement an array the message may use to store future parameters
+	 * @return an array holding the parameters, possibly longer than {@link #getParameterCount()}
+	 */
+	Object[] swapParameters(Object[] emptyReplacement);
+
+	/**
+	 * @return an immutable copy of this message, which can outlive the logging call
+	 */
+	ReusableMessage memento();
+
+	/**
+	 * Releases the references to the template, the parameters and the throwable.
+	 */
+	void clear();
+
+}
@@ -0,0 +1,81 @@
+package com.robertotru.textresolver.logging;
+
+/**
+ * Provides the {@link ReusableTextResolverMessage} of the current thread, so that logging calls do not allocate a
+ * message each time.
+ * A message is reserved until {@link #release(ReusableMessage)} is called: if a message is requested while the one
+ * of the thread is still in use, e.g. by an argument logging from its {@code toString()}, a new message is created.
+ * Example:
+ * <pre>{@code
+ * ReusableTextResolverMessage message = ReusableMessageFactory.newMessage("User {} logged in", user);
+ * try {
+ *     message.formatTo(appenderBuffer);
+ * } finally {
+ *     ReusableMessageFactory.release(message);
+ * }
+ * }</pre>
+ */
+public final class ReusableMessageFactory {
+
+	private static final ThreadLocal<ReusableTextResolverMessage> MESSAGES =
+			ThreadLocal.withInitial(ReusableTextResolverMessage::new);
+
+	private ReusableMessageFactory() {
+	}
+
+	public static ReusableTextResolverMessage newMessage(final String messageTemplate) {
+		return reserve(available().set(messageTemplate));
+	}
+
+	public static ReusableTextResolverMessage newMessage(final String messageTemplate, final Object p0) {
+		return reserve(available().set(messageTemplate, p0));
+	}
+
+	public static ReusableTextResolverMessage newMessage(final String messageTemplate,
+	                                                     final Object p0,
+	                                                     final Object p1) {
+		return reserve(available().set(messageTemplate, p0, p1));
+	}
+
+	public static ReusableTextResolverMessage newMessage(final String messageTemplate,
+	                                                     final Object p0,
+	                                                     final Object p1,
+	                                                     final Object p2) {
+		return reserve(available().set(messageTemplate, p0, p1, p2));
+	}
+
+	public static ReusableTextResolverMessage newMessage(final String messageTemplate,
+	                                                     final Object p0,
+	                                                     final Object p1,
+	                                                     final Object p2,
+	                                                     final Object p3) {
+		return reserve(available().set(messageTemplate, p0, p1, p2, p3));
+	}
+
+	public static ReusableTextResolverMessage newMessage(final String messageTemplate, final Object... parameters) {
+		return reserve(available().set(messageTemplate, parameters));
+	}
+
+	/**
+	 * Clears the given message, so that its references can be garbage collected and the message can be reused.
+	 *
+	 * @param message the message to release, may be {@code null}
+	 */
+	public static void release(final ReusableMessage message) {
+		if (message != null) {
+			message.clear();
+		}
+	}
+
+	private static ReusableTextResolverMessage available() {
+		final ReusableTextResolverMessage message = MESSAGES.get();
+		return message.reserved ? new ReusableTextResolverMessage() : message;
+	}
+
+	private static ReusableTextResolverMessage reserve(final ReusableTextResolverMessage message) {
+		// reserved only once set, so that a failing set does not leave the message of the thread reserved
+		message.reserved = true;
+		return message;
+	}
+
+}
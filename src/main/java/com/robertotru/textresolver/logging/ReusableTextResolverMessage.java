@@ -0,0 +1,219 @@
+package com.robertotru.textresolver.logging;
+
+import com.robertotru.textresolver.TextResolver;
+import java.util.Arrays;
+
+/**
+ * {@link ReusableMessage} formatted with {@link TextResolver} semantics.
+ * The template and the parameters are only captured when the message is set: formatting happens when the appender
+ * calls {@link #formatTo(StringBuilder)}, directly into its buffer.
+ * <p>
+ * The setters taking up to four parameters store them into an array owned by the message, so that no array is
+ * allocated by the logging call; the varargs setter keeps a reference to the given array, without copying it.
+ * The owned array may be longer than the number of parameters, which is kept apart.
+ * <p>
+ * As with the usual logging APIs, a {@link Throwable} given as the last parameter, with no placeholder left for it,
+ * becomes the throwable of the message, e.g. {@code set("Request {} failed", id, exception)}.
+ * Instances are not thread safe: they are usually obtained from {@link ReusableMessageFactory}, which keeps one per
+ * thread.
+ */
+public final class ReusableTextResolverMessage implements ReusableMessage {
+
+	static final int MAXIMUM_UNROLLED_PARAMETERS = 4;
+	private static final Object[] NO_PARAMETERS = new Object[0];
+
+	private Object[] ownedParameters = new Object[MAXIMUM_UNROLLED_PARAMETERS];
+	private String messageTemplate;
+	private Object[] parameters = NO_PARAMETERS;
+	private int parameterCount;
+	private boolean borrowedParameters;
+	private Throwable throwable;
+	boolean reserved;
+
+	public ReusableTextResolverMessage set(final String messageTemplate) {
+		setOwnedParameters(messageTemplate, 0);
+		return this;
+	}
+
+	public ReusableTextResolverMessage set(final String messageTemplate, final Object p0) {
+		final Object[] array = setOwnedParameters(messageTemplate, 1);
+		array[0] = p0;
+		return detachTrailingThrowable();
+	}
+
+	public ReusableTextResolverMessage set(final String messageTemplate, final Object p0, final Object p1) {
+		final Object[] array = setOwnedParameters(messageTemplate, 2);
+		array[0] = p0;
+		array[1] = p1;
+		return detachTrailingThrowable();
+	}
+
+	public ReusableTextResolverMessage set(final String messageTemplate,
+	                                       final Object p0,
+	                                       final Object p1,
+	                                       final Object p2) {
+		final Object[] array = setOwnedParameters(messageTemplate, 3);
+		array[0] = p0;
+		array[1] = p1;
+		array[2] = p2;
+		return detachTrailingThrowable();
+	}
+
+	public ReusableTextResolverMessage set(final String messageTemplate,
+	                                       final Object p0,
+	                                       final Object p1,
+	                                       final Object p2,
+	                                       final Object p3) {
+		final Object[] array = setOwnedParameters(messageTemplate, 4);
+		array[0] = p0;
+		array[1] = p1;
+		array[2] = p2;
+		array[3] = p3;
+		return detachTrailingThrowable();
+	}
+
+	/**
+	 * Captures the given array of parameters without copying it: the caller must not modify it until the message
+	 * is cleared.
+	 */
+	public ReusableTextResolverMessage set(final String messageTemplate, final Object... parameters) {
+		if (parameters == null) {
+			throw new IllegalArgumentException("Array of arguments cannot be null.");
+		}
+		setTemplate(messageTemplate);
+		this.parameters = parameters;
+		this.parameterCount = parameters.length;
+		this.borrowedParameters = true;
+		return detachTrailingThrowable();
+	}
+
+	/**
+	 * @param throwable the throwable attached to the message
+	 * @return this message
+	 */
+	public ReusableTextResolverMessage withThrowable(final Throwable throwable) {
+		this.throwable = throwable;
+		return this;
+	}
+
+	@Override
+	public String getFormat() {
+		return messageTemplate;
+	}
+
+	@Override
+	public Object[] getParameters() {
+		return Arrays.copyOf(parameters, parameterCount);
+	}
+
+	@Override
+	public short getParameterCount() {
+		return (short) parameterCount;
+	}
+
+	@Override
+	public Throwable getThrowable() {
+		return throwable;
+	}
+
+	@Override
+	public String getFormattedMessage() {
+		return TextResolver.resolveArgumentsTo(new StringBuilder(), messageTemplate, parameters, parameterCount)
+				.toString();
+	}
+
+	/**
+	 * If the message cannot be formatted, nothing is appended to the buffer.
+	 */
+	@Override
+	public void formatTo(final StringBuilder buffer) {
+		if (buffer == null) {
+			throw new IllegalArgumentException("String builder cannot be null.");
+		}
+		final int mark = buffer.length();
+		try {
+			TextResolver.resolveArgumentsTo(buffer, messageTemplate, parameters, parameterCount);
+		} catch (RuntimeException e) {
+			buffer.setLength(mark);
+			throw e;
+		}
+	}
+
+	/**
+	 * The owned array of parameters is replaced by the given one when it can hold the current parameters, even if
+	 * it is longer; otherwise, a new array is allocated.
+	 */
+	@Override
+	public Object[] swapParameters(final Object[] emptyReplacement) {
+		final Object[] result = parameters;
+		if (!borrowedParameters && parameterCount > 0) {
+			ownedParameters = emptyReplacement != null && emptyReplacement.length >= parameterCount
+					? emptyReplacement
+					: new Object[MAXIMUM_UNROLLED_PARAMETERS];
+			parameters = ownedParameters;
+		}
+		return result;
+	}
+
+	@Override
+	public ReusableMessage memento() {
+		return new ReusableTextResolverMessage()
+				.set(messageTemplate, Arrays.copyOf(parameters, parameterCount))
+				.withThrowable(throwable);
+	}
+
+	@Override
+	public void clear() {
+		if (!borrowedParameters) {
+			Arrays.fill(parameters, 0, parameterCount, null);
+		}
+		parameters = NO_PARAMETERS;
+		parameterCount = 0;
+		borrowedParameters = false;
+		messageTemplate = null;
+		throwable = null;
+		reserved = false;
+	}
+
+	@Override
+	public String toString() {
+		return getFormattedMessage();
+	}
+
+	private Object[] setOwnedParameters(final String messageTemplate, final int count) {
+		setTemplate(messageTemplate);
+		if (ownedParameters.length < count) {
+			// a shorter array was handed over by swapParameters
+			ownedParameters = new Object[MAXIMUM_UNROLLED_PARAMETERS];
+		} else if (!borrowedParameters && parameterCount > count) {
+			// release the parameters of the previous message that will not be overwritten
+			Arrays.fill(ownedParameters, count, parameterCount, null);
+		}
+		parameters = ownedParameters;
+		parameterCount = count;
+		borrowedParameters = false;
+		return ownedParameters;
+	}
+
+	private ReusableTextResolverMessage detachTrailingThrowable() {
+		// the template is only scanned when the last parameter is a throwable
+		if (parameterCount > 0
+				&& parameters[parameterCount - 1] instanceof Throwable
+				&& TextResolver.countPlaceholders(messageTemplate) == parameterCount - 1) {
+			throwable = (Throwable) parameters[--parameterCount];
+			if (!borrowedParameters) {
+				parameters[parameterCount] = null;
+			}
+		}
+		return this;
+	}
+
+	private void setTemplate(final String messageTemplate) {
+		if (messageTemplate == null) {
+			throw new IllegalArgumentException("Message template cannot be null.");
+		}
+		this.messageTemplate = messageTemplate;
+		this.throwable = null;
+	}
+
+}
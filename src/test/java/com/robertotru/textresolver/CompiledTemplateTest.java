@@ -0,0 +1,245 @@
+package com.robertotru.textresolver;
+
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ForkJoinPool;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class CompiledTemplateTest {
+
+	//<editor-fold desc="Compile">
+
+	@Test
+	void compile_hasNullPattern() {
+		// Given
+		String messagePattern = null;
+
+		// When
+		Throwable throwable = Assertions.catchThrowable(() ->
+				TextResolver.compile(messagePattern)
+		);
+
+		// Then
+		Assertions.assertThat(throwable)
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Message template cannot be null.");
+	}
+
+	@Test
+	void compile_resolvesLikeTextResolver() {
+		// Given
+		String messagePattern = "The file is at C:\\\\{}, not at \\{} nor at {}";
+		Object arg1 = "mytest.zip";
+		Object arg2 = new int[]{1, 2};
+
+		// When
+		CompiledTemplate compiledTemplate = TextResolver.compile(messagePattern);
+		String formattedString = compiledTemplate.resolve(arg1, arg2);
+
+		// Then
+		Assertions.assertThat(compiledTemplate.getArity())
+				.isEqualTo(2);
+		Assertions.assertThat(formattedString)
+				.isEqualTo(TextResolver.resolve(messagePattern, arg1, arg2))
+				.isEqualTo(compiledTemplate.resolveAsCharSequence(arg1, arg2).toString());
+	}
+
+	@Test
+	void compile_failsWithLessArgs() {
+		// Given
+		CompiledTemplate compiledTemplate = TextResolver.compile("Hello {}, welcome to this {} test: time is {}.");
+
+		// When
+		Throwable throwable = Assertions.catchThrowable(() ->
+				compiledTemplate.resolve("Johnny Dorelly", "nice")
+		);
+
+		// Then
+		Assertions.assertThat(throwable)
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Expected at least 3 arguments, but only 2 were given.");
+	}
+
+	@Test
+	void compile_failsWithAdditionalArgs() {
+		// Given
+		CompiledTemplate compiledTemplate = TextResolver.compile("Hello {}, welcome to this {} test");
+
+		// When
+		Throwable throwable = Assertions.catchThrowable(() ->
+				compiledTemplate.resolve("Daniele Trunfio", "nice", "ignored1")
+		);
+
+		// Then
+		Assertions.assertThat(throwable)
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage(
+						"Expected 3 placeholders, while 2 arguments were found: therefore, 1 argument is useless.");
+	}
+
+	//</editor-fold>
+
+	//<editor-fold desc="Bind">
+
+	@Test
+	void bind_rendersLeadingArguments() {
+		// Given
+		String messagePattern = "[{}@{}] {} took {} ms";
+
+		// When
+		CompiledTemplate boundTemplate = TextResolver.bind(messagePattern, "billing", "node-1");
+		String formattedString = boundTemplate.resolve("charge", 12);
+
+		// Then
+		Assertions.assertThat(boundTemplate.getArity())
+				.isEqualTo(2);
+		Assertions.assertThat(formattedString)
+				.isEqualTo("[billing@node-1] charge took 12 ms")
+				.isEqualTo(TextResolver.resolve(messagePattern, "billing", "node-1", "charge", 12));
+	}
+
+	@Test
+	void bind_canBeAppliedTwice() {
+		// Given
+		CompiledTemplate compiledTemplate = TextResolver.compile("{}/{}/{}");
+
+		// When
+		String formattedString = compiledTemplate.bind("a")
+				.bind("b")
+				.resolve("c");
+
+		// Then
+		Assertions.assertThat(formattedString)
+				.isEqualTo("a/b/c");
+	}
+
+	@Test
+	void bind_keepsEscapes() {
+		// Given
+		String messagePattern = "{} \\{} C:\\\\{}";
+
+		// When
+		CompiledTemplate boundTemplate = TextResolver.bind(messagePattern, "x");
+
+		// Then
+		Assertions.assertThat(boundTemplate.getArity())
+				.isEqualTo(1);
+		Assertions.assertThat(boundTemplate.resolve("y"))
+				.isEqualTo("x {} C:\\y");
+	}
+
+	@Test
+	void bind_argumentContainingPlaceholder() {
+		// Given
+		Object fixedArgument = "\\{}";
+
+		// When
+		CompiledTemplate boundTemplate = TextResolver.bind("{}{}", fixedArgument);
+
+		// Then
+		Assertions.assertThat(boundTemplate.getArity())
+				.isEqualTo(1);
+		Assertions.assertThat(boundTemplate.resolve("!"))
+				.isEqualTo("\\{}!");
+	}
+
+	@Test
+	void bind_failsWithAdditionalArgs() {
+		// Given
+		String messagePattern = "{} prova, sa sa";
+
+		// When
+		Throwable throwable = Assertions.catchThrowable(() ->
+				TextResolver.bind(messagePattern, 123, "ignored1")
+		);
+
+		// Then
+		Assertions.assertThat(throwable)
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Expected 2 placeholders, while 1 argument was found: therefore, 1 argument is useless.");
+	}
+
+	//</editor-fold>
+
+	//<editor-fold desc="Parallel resolution">
+
+	@Test
+	void resolveInParallel_isIdenticalToResolve() {
+		// Given
+		StringBuilder messagePattern = new StringBuilder();
+		// rows are longer than 8 characters, hence the message is twice as long as the threshold
+		for (int i = 0; i < CompiledTemplate.PARALLEL_THRESHOLD / 4 + 1; i++) {
+			messagePattern.append("slot ").append(i).append(i % 10 == 0 ? " \\{}: {}\n" : ": {}\n");
+		}
+		CompiledTemplate compiledTemplate = TextResolver.compile(messagePattern.toString());
+		Object[] arguments = new Object[compiledTemplate.getArity()];
+		for (int i = 0; i < arguments.length; i++) {
+			arguments[i] = i % 2 == 0 ? i : new int[]{i, -i};
+		}
+		ForkJoinPool pool = new ForkJoinPool(4);
+
+		// When
+		String formattedString;
+		try {
+			formattedString = compiledTemplate.resolveInParallel(pool, arguments);
+		} finally {
+			pool.shutdown();
+		}
+
+		// Then
+		Assertions.assertThat(formattedString)
+				.isEqualTo(compiledTemplate.resolve(arguments));
+	}
+
+	@Test
+	void resolveInParallel_rethrowsArgumentFailure() {
+		// Given
+		CompiledTemplate compiledTemplate = TextResolver.compile(
+				String.join(" ", Collections.nCopies(CompiledTemplate.PARALLEL_THRESHOLD / 4, "{}")));
+		Object[] arguments = new Object[compiledTemplate.getArity()];
+		Arrays.fill(arguments, "value");
+		arguments[arguments.length - 1] = new Object() {
+			@Override
+			public String toString() {
+				throw new IllegalStateException("Cannot render.");
+			}
+		};
+		ForkJoinPool pool = new ForkJoinPool(4);
+
+		// When
+		Throwable throwable;
+		try {
+			throwable = Assertions.catchThrowable(() ->
+					compiledTemplate.resolveInParallel(pool, arguments)
+			);
+		} finally {
+			pool.shutdown();
+		}
+
+		// Then
+		Assertions.assertThat(throwable)
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessage("Cannot render.");
+	}
+
+	@Test
+	void resolveInParallel_failsWithLessArgs() {
+		// Given
+		CompiledTemplate compiledTemplate = TextResolver.compile("Hello {}, welcome to this {} test");
+
+		// When
+		Throwable throwable = Assertions.catchThrowable(() ->
+				compiledTemplate.resolveInParallel("Johnny Dorelly")
+		);
+
+		// Then
+		Assertions.assertThat(throwable)
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Expected at least 2 arguments, but only one was given.");
+	}
+
+	//</editor-fold>
+
+}
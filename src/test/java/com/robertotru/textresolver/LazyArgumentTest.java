@@ -0,0 +1,145 @@
+package com.robertotru.textresolver;
+
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class LazyArgumentTest {
+
+	@Test
+	void lazy_hasNullSupplier() {
+		// When
+		Throwable throwable = Assertions.catchThrowable(() ->
+				TextResolver.lazy(null)
+		);
+
+		// Then
+		Assertions.assertThat(throwable)
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Supplier cannot be null.");
+	}
+
+	@Test
+	void lazy_isEvaluatedOnlyWhenRendered() {
+		// Given
+		AtomicInteger evaluations = new AtomicInteger();
+		LazyArgument argument = TextResolver.lazy(() -> "payload #" + evaluations.incrementAndGet());
+
+		// When
+		boolean evaluatedBeforeResolve = argument.isEvaluated();
+		String formattedString = TextResolver.resolve("Received {}", argument);
+
+		// Then
+		Assertions.assertThat(evaluatedBeforeResolve)
+				.isFalse();
+		Assertions.assertThat(formattedString)
+				.isEqualTo("Received payload #1");
+		Assertions.assertThat(evaluations.get())
+				.isEqualTo(1);
+	}
+
+	@Test
+	void lazy_isEvaluatedAtMostOnce() {
+		// Given
+		AtomicInteger evaluations = new AtomicInteger();
+		LazyArgument argument = TextResolver.lazy(() -> "payload #" + evaluations.incrementAndGet());
+
+		// When
+		String formattedString1 = TextResolver.resolve("{} and {}", argument, argument);
+		String formattedString2 = TextResolver.compile("{}").resolve(argument);
+
+		// Then
+		Assertions.assertThat(formattedString1)
+				.isEqualTo("payload #1 and payload #1");
+		Assertions.assertThat(formattedString2)
+				.isEqualTo("payload #1");
+		Assertions.assertThat(evaluations.get())
+				.isEqualTo(1);
+	}
+
+	@Test
+	void lazy_isNotEvaluatedWhenResolutionFails() {
+		// Given
+		LazyArgument argument = TextResolver.lazy(() -> "payload");
+		CompiledTemplate compiledTemplate = TextResolver.compile("Hello {}, welcome to this {} test");
+
+		// When
+		Throwable throwable = Assertions.catchThrowable(() ->
+				compiledTemplate.resolve(argument)
+		);
+
+		// Then
+		Assertions.assertThat(throwable)
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Expected at least 2 arguments, but only one was given.");
+		Assertions.assertThat(argument.isEvaluated())
+				.isFalse();
+	}
+
+	@Test
+	void lazy_isNotEvaluatedWhenTemplateResolutionFails() {
+		// Given
+		AtomicInteger evaluations = new AtomicInteger();
+		LazyArgument argument = TextResolver.lazy(() -> "payload #" + evaluations.incrementAndGet());
+
+		// When
+		Throwable tooManyArguments = Assertions.catchThrowable(() ->
+				TextResolver.resolve("{}", argument, "extra")
+		);
+		Throwable tooFewArguments = Assertions.catchThrowable(() ->
+				TextResolver.resolve("{} {} {}", argument, "b")
+		);
+
+		// Then
+		Assertions.assertThat(tooManyArguments)
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Expected 2 placeholders, while 1 argument was found: therefore, 1 argument is useless.");
+		Assertions.assertThat(tooFewArguments)
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Expected at least 3 arguments, but only 2 were given.");
+		Assertions.assertThat(evaluations.get())
+				.isEqualTo(0);
+	}
+
+	@Test
+	void lazy_isNotEvaluatedWhenWriterPrintFails() throws IOException {
+		// Given
+		AtomicInteger evaluations = new AtomicInteger();
+		LazyArgument argument = TextResolver.lazy(() -> "payload #" + evaluations.incrementAndGet());
+		StringWriter stringWriter = new StringWriter();
+
+		// When
+		Throwable throwable;
+		try (TextResolverWriter writer = new TextResolverWriter(stringWriter)) {
+			throwable = Assertions.catchThrowable(() ->
+					writer.print("{}", argument, "extra")
+			);
+		}
+
+		// Then
+		Assertions.assertThat(throwable)
+				.isInstanceOf(IllegalArgumentException.class);
+		Assertions.assertThat(stringWriter.toString())
+				.isEqualTo("");
+		Assertions.assertThat(evaluations.get())
+				.isEqualTo(0);
+	}
+
+	@Test
+	void lazy_rendersArrays() {
+		// Given
+		LazyArgument argument = TextResolver.lazy(() -> new int[]{1, 2});
+		Object[] arguments = new Object[]{"a", TextResolver.lazy(() -> "b")};
+
+		// When
+		String formattedString = TextResolver.resolve("{} {}", argument, arguments);
+
+		// Then
+		Assertions.assertThat(formattedString)
+				.isEqualTo("[1, 2] [a, b]");
+	}
+
+}
@@ -0,0 +1,186 @@
+package com.robertotru.textresolver;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class MemoizingTextResolverTest {
+
+	@Test
+	void resolve_cachesImmutableArguments() {
+		// Given
+		MemoizingTextResolver resolver = new MemoizingTextResolver(16);
+		String messagePattern = "Status {} after {} retries";
+
+		// When
+		String formattedString1 = resolver.resolve(messagePattern, Status.UP, 3);
+		String formattedString2 = resolver.resolve(messagePattern, Status.UP, 3);
+
+		// Then
+		Assertions.assertThat(formattedString1)
+				.isEqualTo("Status UP after 3 retries");
+		Assertions.assertThat(formattedString2)
+				.isSameAs(formattedString1);
+		Assertions.assertThat(resolver.getHitCount())
+				.isEqualTo(1L);
+		Assertions.assertThat(resolver.getMissCount())
+				.isEqualTo(1L);
+		Assertions.assertThat(resolver.getHitRate())
+				.isEqualTo(0.5);
+	}
+
+	@Test
+	void resolve_distinguishesArgumentTypes() {
+		// Given
+		MemoizingTextResolver resolver = new MemoizingTextResolver(16);
+
+		// When
+		String formattedString1 = resolver.resolve("{}", 1);
+		String formattedString2 = resolver.resolve("{}", 1.0);
+
+		// Then
+		Assertions.assertThat(formattedString1)
+				.isEqualTo("1");
+		Assertions.assertThat(formattedString2)
+				.isEqualTo("1.0");
+		Assertions.assertThat(resolver.getHitCount())
+				.isEqualTo(0L);
+	}
+
+	@Test
+	void resolve_bypassesMutableArguments() {
+		// Given
+		MemoizingTextResolver resolver = new MemoizingTextResolver(16);
+		List<String> values = new ArrayList<>();
+		values.add("a");
+
+		// When
+		String formattedString1 = resolver.resolve("{}", values);
+		values.add("b");
+		String formattedString2 = resolver.resolve("{}", values);
+
+		// Then
+		Assertions.assertThat(formattedString1)
+				.isEqualTo("[a]");
+		Assertions.assertThat(formattedString2)
+				.isEqualTo("[a, b]");
+		Assertions.assertThat(resolver.getBypassCount())
+				.isEqualTo(2L);
+		Assertions.assertThat(resolver.size())
+				.isEqualTo(0);
+	}
+
+	@Test
+	void resolve_cachesRegisteredTypes() {
+		// Given
+		MemoizingTextResolver resolver = new MemoizingTextResolver(16)
+				.registerImmutableType(Point.class);
+
+		// When
+		resolver.resolve("Point {}", new Point(1, 2));
+		String formattedString = resolver.resolve("Point {}", new Point(1, 2));
+
+		// Then
+		Assertions.assertThat(formattedString)
+				.isEqualTo("Point (1, 2)");
+		Assertions.assertThat(resolver.getHitCount())
+				.isEqualTo(1L);
+	}
+
+	@Test
+	void resolve_isBounded() {
+		// Given
+		MemoizingTextResolver resolver = new MemoizingTextResolver(4);
+
+		// When
+		for (int i = 0; i < 100; i++) {
+			resolver.resolve("Value {}", i);
+		}
+
+		// Then
+		Assertions.assertThat(resolver.size())
+				.isEqualTo(4);
+	}
+
+	@Test
+	void resolve_keepsFrequentlyUsedMessages() {
+		// Given
+		MemoizingTextResolver resolver = new MemoizingTextResolver(32);
+		resolver.resolve("Hot {}", 0);
+
+		// When
+		for (int i = 0; i < 1000; i++) {
+			resolver.resolve("Cold {}", i);
+			resolver.resolve("Hot {}", 0);
+		}
+
+		// Then
+		Assertions.assertThat(resolver.getHitCount())
+				.isEqualTo(1000L);
+		Assertions.assertThat(resolver.size())
+				.isEqualTo(32);
+	}
+
+	@Test
+	void resolve_failsLikeTextResolver() {
+		// Given
+		MemoizingTextResolver resolver = new MemoizingTextResolver(16);
+
+		// When
+		Throwable throwable = Assertions.catchThrowable(() ->
+				resolver.resolve("Hello {}, welcome to this {} test", "Johnny Dorelly")
+		);
+
+		// Then
+		Assertions.assertThat(throwable)
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Expected at least 2 arguments, but only one was given.");
+		Assertions.assertThat(resolver.size())
+				.isEqualTo(0);
+	}
+
+	@Test
+	void constructor_failsWithNonPositiveSize() {
+		// When
+		Throwable throwable = Assertions.catchThrowable(() ->
+				new MemoizingTextResolver(0)
+		);
+
+		// Then
+		Assertions.assertThat(throwable)
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Maximum size must be positive.");
+	}
+
+	private enum Status {
+		UP
+	}
+
+	private static final class Point {
+		final int x;
+		final int y;
+
+		Point(int x, int y) {
+			this.x = x;
+			this.y = y;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Point && ((Point) o).x == x && ((Point) o).y == y;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * x + y;
+		}
+
+		@Override
+		public String toString() {
+			return "(" + x + ", " + y + ")";
+		}
+	}
+
+}
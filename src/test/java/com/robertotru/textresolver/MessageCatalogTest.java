@@ -0,0 +1,124 @@
+package com.robertotru.textresolver;
+
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class MessageCatalogTest {
+
+	@Test
+	void open_resolvesCompiledMessages() throws IOException {
+		// Given
+		Map<String, String> templates = new HashMap<>();
+		templates.put("greeting", "Hello {}, welcome to this {} test");
+		templates.put("escapes", "The file is at C:\\\\{}, not at \\{}");
+		templates.put("plain", "Just a message");
+		templates.put("unicode", "Citt\u00e0 {} \u20ac");
+		Path path = Files.createTempFile("message-catalog", ".bin");
+
+		// When
+		MessageCatalog catalog;
+		try {
+			MessageCatalogCompiler.compile(templates, path);
+			catalog = MessageCatalog.open(path);
+		} finally {
+			Files.delete(path);
+		}
+
+		// Then
+		Assertions.assertThat(catalog.size())
+				.isEqualTo(4);
+		Assertions.assertThat(catalog.resolve("greeting", "Daniele Trunfio", "nice"))
+				.isEqualTo("Hello Daniele Trunfio, welcome to this nice test");
+		Assertions.assertThat(catalog.resolve("escapes", "mytest.zip"))
+				.isEqualTo("The file is at C:\\mytest.zip, not at {}");
+		Assertions.assertThat(catalog.resolve("plain"))
+				.isEqualTo("Just a message");
+		Assertions.assertThat(catalog.resolve("unicode", 1))
+				.isEqualTo("Citt\u00e0 1 \u20ac");
+		Assertions.assertThat(catalog.getTemplate("greeting"))
+				.isSameAs(catalog.getTemplate("greeting"));
+		Assertions.assertThat(catalog.contains("plain"))
+				.isTrue();
+		Assertions.assertThat(catalog.contains("missing"))
+				.isFalse();
+	}
+
+	@Test
+	void open_handlesHashCollisions() throws IOException {
+		// Given
+		Map<String, String> templates = new HashMap<>();
+		// "Aa" and "BB" have the same hash code
+		templates.put("Aa", "first {}");
+		templates.put("BB", "second {}");
+		Path path = Files.createTempFile("message-catalog", ".bin");
+
+		// When
+		MessageCatalog catalog;
+		try {
+			MessageCatalogCompiler.compile(templates, path);
+			catalog = MessageCatalog.open(path);
+		} finally {
+			Files.delete(path);
+		}
+
+		// Then
+		Assertions.assertThat(catalog.resolve("Aa", 1))
+				.isEqualTo("first 1");
+		Assertions.assertThat(catalog.resolve("BB", 2))
+				.isEqualTo("second 2");
+		Assertions.assertThat(catalog.contains("C#"))
+				.isFalse();
+	}
+
+	@Test
+	void getTemplate_failsWithUnknownId() throws IOException {
+		// Given
+		Path path = Files.createTempFile("message-catalog", ".bin");
+		MessageCatalog catalog;
+		try {
+			MessageCatalogCompiler.compile(new HashMap<>(), path);
+			catalog = MessageCatalog.open(path);
+		} finally {
+			Files.delete(path);
+		}
+
+		// When
+		Throwable throwable = Assertions.catchThrowable(() ->
+				catalog.getTemplate("missing")
+		);
+
+		// Then
+		Assertions.assertThat(throwable)
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Message id not found: missing.");
+	}
+
+	@Test
+	void open_failsWithOtherFiles() throws IOException {
+		// Given
+		Path path = Files.createTempFile("message-catalog", ".bin");
+		Files.write(path, "greeting=Hello {}".getBytes());
+
+		// When
+		Throwable throwable;
+		try {
+			throwable = Assertions.catchThrowable(() ->
+					MessageCatalog.open(path)
+			);
+		} finally {
+			Files.delete(path);
+		}
+
+		// Then
+		Assertions.assertThat(throwable)
+				.isInstanceOf(IOException.class)
+				.hasMessage("Not a message catalog: " + path + ".");
+	}
+
+}
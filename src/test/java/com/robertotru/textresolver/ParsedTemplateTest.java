@@ -0,0 +1,192 @@
+package com.robertotru.textresolver;
+
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StringWriter;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ParsedTemplateTest {
+
+	//<editor-fold desc="Parse">
+
+	@Test
+	void parse_hasNullPattern() {
+		// Given
+		String messagePattern = null;
+
+		// When
+		Throwable throwable = Assertions.catchThrowable(() ->
+				TextResolver.parse(messagePattern)
+		);
+
+		// Then
+		Assertions.assertThat(throwable)
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Message template cannot be null.");
+	}
+
+	@Test
+	void parse_exposesStructure() {
+		// Given
+		String messagePattern = "{} is at C:\\\\{}, not at \\{}!";
+
+		// When
+		ParsedTemplate parsedTemplate = TextResolver.parse(messagePattern);
+
+		// Then
+		Assertions.assertThat(parsedTemplate.getSource())
+				.isEqualTo(messagePattern);
+		Assertions.assertThat(parsedTemplate.getArity())
+				.isEqualTo(2);
+		Assertions.assertThat(parsedTemplate.getPlaceholderOffsets())
+				.containsExactly(0, 13);
+		Assertions.assertThat(parsedTemplate.getEscapeSites())
+				.containsExactly(12, 24);
+		Assertions.assertThat(parsedTemplate.getLiteralSegments())
+				.containsExactly("", " is at C:\\", ", not at {}!");
+	}
+
+	@Test
+	void parse_hasNoPlaceholder() {
+		// Given
+		String messagePattern = "Just a message";
+
+		// When
+		ParsedTemplate parsedTemplate = TextResolver.parse(messagePattern);
+
+		// Then
+		Assertions.assertThat(parsedTemplate.getArity())
+				.isEqualTo(0);
+		Assertions.assertThat(parsedTemplate.getEscapeSites())
+				.hasSize(0);
+		Assertions.assertThat(parsedTemplate.getLiteralSegments())
+				.containsExactly("Just a message");
+	}
+
+	//</editor-fold>
+
+	//<editor-fold desc="Resolve">
+
+	@Test
+	void resolve_resolvesLikeTextResolver() {
+		// Given
+		String messagePattern = "The file is at C:\\\\{}, not at \\{} nor at {}";
+		Object arg1 = "mytest.zip";
+		Object arg2 = new int[]{1, 2};
+		ParsedTemplate parsedTemplate = TextResolver.parse(messagePattern);
+
+		// When
+		String formattedString = TextResolver.resolve(parsedTemplate, arg1, arg2);
+
+		// Then
+		Assertions.assertThat(formattedString)
+				.isEqualTo(TextResolver.resolve(messagePattern, arg1, arg2))
+				.isEqualTo(TextResolver.resolveAsCharSequence(parsedTemplate, arg1, arg2).toString())
+				.isEqualTo(TextResolver.resolveTo(new StringBuilder(), parsedTemplate, arg1, arg2).toString())
+				.isEqualTo(new MemoizingTextResolver(8).resolve(parsedTemplate, arg1, arg2));
+	}
+
+	@Test
+	void resolve_failsWithLessArgs() {
+		// Given
+		ParsedTemplate parsedTemplate = TextResolver.parse("Hello {}, welcome to this {} test: time is {}.");
+
+		// When
+		Throwable throwable = Assertions.catchThrowable(() ->
+				TextResolver.resolve(parsedTemplate, "Johnny Dorelly", "nice")
+		);
+
+		// Then
+		Assertions.assertThat(throwable)
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Expected at least 3 arguments, but only 2 were given.");
+	}
+
+	@Test
+	void print_writesResolvedMessage() throws IOException {
+		// Given
+		StringWriter stringWriter = new StringWriter();
+		ParsedTemplate parsedTemplate = TextResolver.parse("{} + {}");
+
+		// When
+		try (TextResolverWriter writer = new TextResolverWriter(stringWriter)) {
+			writer.print(parsedTemplate, 1, 2);
+		}
+
+		// Then
+		Assertions.assertThat(stringWriter.toString())
+				.isEqualTo("1 + 2");
+	}
+
+	//</editor-fold>
+
+	//<editor-fold desc="Binary form">
+
+	@Test
+	void readFrom_restoresTemplate() throws IOException {
+		// Given
+		ParsedTemplate parsedTemplate = TextResolver.parse("Caf\u00e9 {} at \\{}, path C:\\\\{} \u2713 {}");
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		parsedTemplate.writeTo(new DataOutputStream(bytes));
+
+		// When
+		ParsedTemplate readTemplate = ParsedTemplate.readFrom(
+				new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+		// Then
+		Assertions.assertThat(readTemplate)
+				.isEqualTo(parsedTemplate);
+		Assertions.assertThat(readTemplate.getPlaceholderOffsets())
+				.isEqualTo(parsedTemplate.getPlaceholderOffsets());
+		Assertions.assertThat(readTemplate.getEscapeSites())
+				.isEqualTo(parsedTemplate.getEscapeSites());
+		Assertions.assertThat(readTemplate.getLiteralSegments())
+				.isEqualTo(parsedTemplate.getLiteralSegments());
+		Assertions.assertThat(TextResolver.resolve(readTemplate, "a", "b", "c"))
+				.isEqualTo(TextResolver.resolve(parsedTemplate, "a", "b", "c"));
+	}
+
+	@Test
+	void readFrom_failsWithUnsupportedVersion() throws IOException {
+		// Given
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		TextResolver.parse("{} and {}").writeTo(new DataOutputStream(bytes));
+		byte[] input = bytes.toByteArray();
+		input[0] = 1;
+
+		// When
+		Throwable throwable = Assertions.catchThrowable(() ->
+				ParsedTemplate.readFrom(new DataInputStream(new ByteArrayInputStream(input)))
+		);
+
+		// Then
+		Assertions.assertThat(throwable)
+				.isInstanceOf(IOException.class)
+				.hasMessage("Unsupported parsed template version: 1.");
+	}
+
+	@Test
+	void readFrom_failsWithTruncatedHugeSource() {
+		// Given
+		// declares a source of Integer.MAX_VALUE bytes, without providing any
+		byte[] input = new byte[]{ParsedTemplate.FORMAT_VERSION, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 7};
+
+		// When
+		Throwable throwable = Assertions.catchThrowable(() ->
+				ParsedTemplate.readFrom(new DataInputStream(new ByteArrayInputStream(input)))
+		);
+
+		// Then
+		Assertions.assertThat(throwable)
+				.isInstanceOf(EOFException.class);
+	}
+
+	//</editor-fold>
+
+}
@@ -0,0 +1,117 @@
+package com.robertotru.textresolver;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class PooledTextResolverTest {
+
+	@Test
+	void constructor_hasNullStrategy() {
+		// Given
+		BufferStrategy bufferStrategy = null;
+
+		// When
+		Throwable throwable = Assertions.catchThrowable(() ->
+				new PooledTextResolver(bufferStrategy)
+		);
+
+		// Then
+		Assertions.assertThat(throwable)
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Buffer strategy cannot be null.");
+	}
+
+	@Test
+	void resolve_resolvesLikeTextResolverWithEveryStrategy() {
+		// Given
+		String messagePattern = "The file is at C:\\\\{}, not at \\{} nor at {}";
+		Object arg1 = "mytest.zip";
+		Object arg2 = new int[]{1, 2};
+
+		for (BufferStrategy bufferStrategy : BufferStrategy.values()) {
+			PooledTextResolver pooledTextResolver = new PooledTextResolver(bufferStrategy);
+
+			// When
+			String first = pooledTextResolver.resolve(messagePattern, arg1, arg2);
+			String second = pooledTextResolver.resolve(TextResolver.parse(messagePattern), arg1, arg2);
+
+			// Then
+			Assertions.assertThat(first)
+					.isEqualTo(TextResolver.resolve(messagePattern, arg1, arg2))
+					.isEqualTo(second);
+		}
+	}
+
+	@Test
+	void resolve_recoversFromFailure() {
+		// Given
+		PooledTextResolver pooledTextResolver = new PooledTextResolver(BufferStrategy.THREAD_LOCAL);
+
+		// When
+		Throwable throwable = Assertions.catchThrowable(() ->
+				pooledTextResolver.resolve("Hello {}, welcome to this {} test", "Johnny Dorelly")
+		);
+		String formattedString = pooledTextResolver.resolve("Hello {}", "Daniele Trunfio");
+
+		// Then
+		Assertions.assertThat(throwable)
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Expected at least 2 arguments, but only one was given.");
+		Assertions.assertThat(formattedString)
+				.isEqualTo("Hello Daniele Trunfio");
+	}
+
+	@Test
+	void resolve_supportsNestedCalls() {
+		// Given
+		PooledTextResolver pooledTextResolver = new PooledTextResolver(BufferStrategy.THREAD_LOCAL);
+		Object nested = new Object() {
+			@Override
+			public String toString() {
+				return pooledTextResolver.resolve("<{}>", "inner");
+			}
+		};
+
+		// When
+		String formattedString = pooledTextResolver.resolve("outer {} outer", nested);
+
+		// Then
+		Assertions.assertThat(formattedString)
+				.isEqualTo("outer <inner> outer");
+	}
+
+	@Test
+	void resolve_isThreadSafeWithStripedPool() throws Exception {
+		// Given
+		PooledTextResolver pooledTextResolver = new PooledTextResolver(BufferStrategy.STRIPED_POOL, 2);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<Boolean>> results = new ArrayList<>();
+
+		// When
+		for (int i = 0; i < 8; i++) {
+			final int task = i;
+			results.add(executor.submit(() -> {
+				for (int j = 0; j < 10_000; j++) {
+					if (!pooledTextResolver.resolve("{}-{}", task, j).equals(task + "-" + j)) {
+						return false;
+					}
+				}
+				return true;
+			}));
+		}
+		executor.shutdown();
+
+		// Then
+		for (Future<Boolean> result : results) {
+			Assertions.assertThat(result.get())
+					.isTrue();
+		}
+	}
+
+}
@@ -1,7 +1,18 @@
 package com.robertotru.textresolver;
 
 
+import java.nio.CharBuffer;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -286,10 +297,217 @@ class TextResolverTest {
 				.isEqualTo(formattedCharSequence.toString());
 	}
 
+	@Test
+	void resolveArgumentsTo_ignoresTrailingElements() {
+		// Given
+		String messagePattern = "{} and {}";
+		Object[] arguments = new Object[]{"first", "second", "unused", null};
+
+		// When
+		StringBuilder formatted = TextResolver.resolveArgumentsTo(new StringBuilder(), messagePattern, arguments, 2);
+		Throwable throwable = Assertions.catchThrowable(() ->
+				TextResolver.resolveArgumentsTo(new StringBuilder(), messagePattern, arguments, 3)
+		);
+
+		// Then
+		Assertions.assertThat(formatted.toString())
+				.isEqualTo("first and second");
+		Assertions.assertThat(throwable)
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Expected 3 placeholders, while 2 arguments were found: therefore, 1 argument is useless.");
+	}
+
+	//</editor-fold>
+
+	//<editor-fold desc="Test collections">
+
+	@Test
+	void format_withList() {
+		// Given
+		String messagePattern = "{}";
+		Object arg = new ArrayList<>(Arrays.asList("Ciao", null, new int[]{1, 2}, Optional.of("mamma!")));
+
+		// When
+		String formattedString = TextResolver.resolve(messagePattern, arg);
+		CharSequence formattedCharSequence = TextResolver.resolveAsCharSequence(messagePattern, arg);
+
+		// Then
+		Assertions.assertThat(formattedString)
+				.isEqualTo("[Ciao, null, [1, 2], Optional[mamma!]]");
+		Assertions.assertThat(formattedString)
+				.isEqualTo(formattedCharSequence.toString());
+	}
+
+	@Test
+	void format_withMap() {
+		// Given
+		String messagePattern = "{}";
+		Map<String, Object> arg = new LinkedHashMap<>();
+		arg.put("a", Collections.singleton(1));
+		arg.put("b", Optional.empty());
+
+		// When
+		String formattedString = TextResolver.resolve(messagePattern, arg);
+		CharSequence formattedCharSequence = TextResolver.resolveAsCharSequence(messagePattern, arg);
+
+		// Then
+		Assertions.assertThat(formattedString)
+				.isEqualTo("{a=[1], b=Optional.empty}")
+				.isEqualTo(arg.toString());
+		Assertions.assertThat(formattedString)
+				.isEqualTo(formattedCharSequence.toString());
+	}
+
+	@Test
+	void format_withRecursiveCollections() {
+		// Given
+		String messagePattern = "{} {}";
+		List<Object> arg1 = new ArrayList<>();
+		arg1.add("Io");
+		arg1.add(arg1); // recurse
+		Map<String, Object> arg2 = new HashMap<>();
+		arg2.put("me", arg2); // recurse
+
+		// When
+		String formattedString = TextResolver.resolve(messagePattern, arg1, arg2);
+		CharSequence formattedCharSequence = TextResolver.resolveAsCharSequence(messagePattern, arg1, arg2);
+
+		// Then
+		Assertions.assertThat(formattedString)
+				.isEqualTo("[Io, [...]] {me={...}}");
+		Assertions.assertThat(formattedString)
+				.isEqualTo(formattedCharSequence.toString());
+	}
+
+	@Test
+	void format_withOneShotIterable() {
+		// Given
+		String messagePattern = "{}";
+		Iterator<String> iterator = Arrays.asList("Ciao", "mamma!").iterator();
+		Iterable<String> arg = new Iterable<String>() {
+			private boolean iteratorObtained;
+
+			@Override
+			public Iterator<String> iterator() {
+				if (iteratorObtained) {
+					throw new IllegalStateException("Iterator already obtained");
+				}
+				iteratorObtained = true;
+				return iterator;
+			}
+		};
+
+		// When
+		String formattedString = TextResolver.resolve(messagePattern, arg);
+
+		// Then
+		Assertions.assertThat(formattedString)
+				.isEqualTo(arg.toString());
+		Assertions.assertThat(arg.iterator())
+				.isSameAs(iterator);
+	}
+
+	@Test
+	void format_withDelegatingWrapper() {
+		// Given
+		String messagePattern = "{}";
+		List<String> wrapped = new ArrayList<String>(Collections.singletonList("a")) {
+			@Override
+			public String toString() {
+				return "CUSTOM";
+			}
+		};
+		Object arg = Collections.unmodifiableList(wrapped);
+
+		// When
+		String formattedString = TextResolver.resolve(messagePattern, arg);
+
+		// Then
+		Assertions.assertThat(formattedString)
+				.isEqualTo("CUSTOM")
+				.isEqualTo(arg.toString());
+	}
+
+	@Test
+	void format_withCustomToString() {
+		// Given
+		String messagePattern = "{} {}";
+		Object arg1 = Paths.get("tmp", "file.txt");
+		Object arg2 = new ArrayList<String>() {
+			@Override
+			public String toString() {
+				return "custom";
+			}
+		};
+
+		// When
+		String formattedString = TextResolver.resolve(messagePattern, arg1, arg2);
+
+		// Then
+		Assertions.assertThat(formattedString)
+				.isEqualTo(arg1 + " custom");
+	}
+
+	//</editor-fold>
+
+	//<editor-fold desc="Test CharSequence and AppendableTo">
+
+	@Test
+	void format_withCharSequences() {
+		// Given
+		String messagePattern = "{} {} {}";
+		Object arg1 = new StringBuilder("Ciao");
+		Object arg2 = CharBuffer.wrap("mamma!".toCharArray());
+		Object arg3 = Arrays.<CharSequence>asList(new StringBuilder("a"), new StringBuffer("b"));
+
+		// When
+		String formattedString = TextResolver.resolve(messagePattern, arg1, arg2, arg3);
+		CharSequence formattedCharSequence = TextResolver.resolveAsCharSequence(messagePattern, arg1, arg2, arg3);
+
+		// Then
+		Assertions.assertThat(formattedString)
+				.isEqualTo("Ciao mamma! [a, b]");
+		Assertions.assertThat(formattedString)
+				.isEqualTo(formattedCharSequence.toString());
+	}
+
+	@Test
+	void format_withAppendableTo() {
+		// Given
+		String messagePattern = "Point {} in {}";
+		Object arg1 = new MyPoint(1, 2);
+		Object arg2 = new MyPoint[]{new MyPoint(3, 4)};
+
+		// When
+		String formattedString = TextResolver.resolve(messagePattern, arg1, arg2);
+		CharSequence formattedCharSequence = TextResolver.resolveAsCharSequence(messagePattern, arg1, arg2);
+
+		// Then
+		Assertions.assertThat(formattedString)
+				.isEqualTo("Point (1, 2) in [(3, 4)]");
+		Assertions.assertThat(formattedString)
+				.isEqualTo(formattedCharSequence.toString());
+	}
+
 	//</editor-fold>
 
 	//<editor-fold desc="Test Placeholder escaping">
 
+	@Test
+	void countPlaceholders_followsEscapingRules() {
+		// Given
+		String messagePattern = "{} is at C:\\\\{}, not at \\{} nor at {";
+
+		// When
+		int numberOfPlaceholders = TextResolver.countPlaceholders(messagePattern);
+
+		// Then
+		Assertions.assertThat(numberOfPlaceholders)
+				.isEqualTo(2);
+		Assertions.assertThat(numberOfPlaceholders)
+				.isEqualTo(TextResolver.parse(messagePattern).getArity());
+	}
+
 	@Test
 	void format_stringContainsSingleEscape() {
 		// Given
@@ -542,5 +760,25 @@ class TextResolverTest {
 		}
 	}
 
+	private static class MyPoint implements AppendableTo {
+		final int x;
+		final int y;
+
+		public MyPoint(int x, int y) {
+			this.x = x;
+			this.y = y;
+		}
+
+		@Override
+		public void appendTo(StringBuilder stringBuilder) {
+			stringBuilder.append('(').append(x).append(", ").append(y).append(')');
+		}
+
+		@Override
+		public String toString() {
+			throw new UnsupportedOperationException("appendTo must be used");
+		}
+	}
+
 
 }
\ No newline at end of file
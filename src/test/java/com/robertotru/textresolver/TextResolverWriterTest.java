@@ -0,0 +1,133 @@
+package com.robertotru.textresolver;
+
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TextResolverWriterTest {
+
+	private static final String LINE_SEPARATOR = System.lineSeparator();
+
+	@Test
+	void println_toWriter() throws IOException {
+		// Given
+		StringWriter stringWriter = new StringWriter();
+		CompiledTemplate compiledTemplate = TextResolver.compile("{} = {}");
+
+		// When
+		try (TextResolverWriter writer = new TextResolverWriter(stringWriter, 8)) {
+			for (int i = 0; i < 3; i++) {
+				writer.println("Line {} of {}", i, 3);
+			}
+			writer.print(compiledTemplate, "x", 1)
+					.println(compiledTemplate, "y", 2);
+		}
+
+		// Then
+		Assertions.assertThat(stringWriter.toString())
+				.isEqualTo("Line 0 of 3" + LINE_SEPARATOR
+						+ "Line 1 of 3" + LINE_SEPARATOR
+						+ "Line 2 of 3" + LINE_SEPARATOR
+						+ "x = 1y = 2" + LINE_SEPARATOR);
+	}
+
+	@Test
+	void println_toChannel() throws IOException {
+		// Given
+		Path path = Files.createTempFile("text-resolver-writer", ".txt");
+		StringBuilder expected = new StringBuilder();
+
+		// When
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE);
+		     TextResolverWriter writer = new TextResolverWriter(channel, StandardCharsets.UTF_8, 16, 3)) {
+			for (int i = 0; i < 100; i++) {
+				writer.println("Citt\u00e0 {}: {}", i, "\u20ac\ud83d\ude00");
+				expected.append("Citt\u00e0 ").append(i).append(": \u20ac\ud83d\ude00").append(LINE_SEPARATOR);
+			}
+		}
+
+		// Then
+		try {
+			Assertions.assertThat(new String(Files.readAllBytes(path), StandardCharsets.UTF_8))
+					.isEqualTo(expected.toString());
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	@Test
+	void print_fillsAllBuffersBeforeWritingToChannel() throws IOException {
+		// Given
+		Path path = Files.createTempFile("text-resolver-writer", ".txt");
+		long sizeBeforeThreshold;
+		long sizeAfterThreshold;
+
+		// When
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE);
+		     TextResolverWriter writer = new TextResolverWriter(channel, StandardCharsets.UTF_8, 16, 3)) {
+			// 40 characters: more than one buffer, less than three
+			for (int i = 0; i < 4; i++) {
+				writer.print("{}", "0123456789");
+			}
+			sizeBeforeThreshold = channel.size();
+			writer.print("{}", "0123456789");
+			sizeAfterThreshold = channel.size();
+		}
+
+		// Then
+		try {
+			Assertions.assertThat(sizeBeforeThreshold)
+					.isEqualTo(0L);
+			Assertions.assertThat(sizeAfterThreshold)
+					.isEqualTo(50L);
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	@Test
+	void print_writesNothingOnFailure() throws IOException {
+		// Given
+		StringWriter stringWriter = new StringWriter();
+		TextResolverWriter writer = new TextResolverWriter(stringWriter);
+
+		// When
+		writer.print("Hello {}", "world");
+		Throwable throwable = Assertions.catchThrowable(() ->
+				writer.print("Hello {}, welcome to this {} test", "Johnny Dorelly")
+		);
+		writer.flush();
+
+		// Then
+		Assertions.assertThat(throwable)
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Expected at least 2 arguments, but only one was given.");
+		Assertions.assertThat(stringWriter.toString())
+				.isEqualTo("Hello world");
+	}
+
+	@Test
+	void print_failsWhenClosed() throws IOException {
+		// Given
+		TextResolverWriter writer = new TextResolverWriter(new StringWriter());
+		writer.close();
+
+		// When
+		Throwable throwable = Assertions.catchThrowable(() ->
+				writer.print("Hello {}", "world")
+		);
+
+		// Then
+		Assertions.assertThat(throwable)
+				.isInstanceOf(IOException.class)
+				.hasMessage("Writer is closed.");
+	}
+
+}
@@ -0,0 +1,227 @@
+package com.robertotru.textresolver.logging;
+
+
+import java.util.Arrays;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ReusableTextResolverMessageTest {
+
+	@Test
+	void formatTo_appendsToBuffer() {
+		// Given
+		StringBuilder buffer = new StringBuilder("INFO ");
+		ReusableTextResolverMessage message = new ReusableTextResolverMessage()
+				.set("Hello {}, welcome to this {} test", "Daniele Trunfio", "nice");
+
+		// When
+		message.formatTo(buffer);
+
+		// Then
+		Assertions.assertThat(buffer.toString())
+				.isEqualTo("INFO Hello Daniele Trunfio, welcome to this nice test");
+		Assertions.assertThat(message.getFormattedMessage())
+				.isEqualTo("Hello Daniele Trunfio, welcome to this nice test");
+		Assertions.assertThat(message.getFormat())
+				.isEqualTo("Hello {}, welcome to this {} test");
+		Assertions.assertThat(message.getParameterCount())
+				.isEqualTo((short) 2);
+	}
+
+	@Test
+	void formatTo_appendsNothingOnFailure() {
+		// Given
+		StringBuilder buffer = new StringBuilder("INFO ");
+		ReusableTextResolverMessage message = new ReusableTextResolverMessage()
+				.set("Hello {}, welcome to this {} test", "Johnny Dorelly");
+
+		// When
+		Throwable throwable = Assertions.catchThrowable(() ->
+				message.formatTo(buffer)
+		);
+
+		// Then
+		Assertions.assertThat(throwable)
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Expected at least 2 arguments, but only one was given.");
+		Assertions.assertThat(buffer.toString())
+				.isEqualTo("INFO ");
+	}
+
+	@Test
+	void set_detachesTrailingThrowable() {
+		// Given
+		Throwable throwable = new IllegalStateException("boom");
+		Object[] parameters = new Object[]{"4b1f0c2e", 1234L, throwable};
+
+		// When
+		ReusableTextResolverMessage unrolled = new ReusableTextResolverMessage()
+				.set("Request {} failed", "4b1f0c2e", throwable);
+		ReusableTextResolverMessage varargs = new ReusableTextResolverMessage()
+				.set("Request {} failed after {} ms", parameters);
+		ReusableTextResolverMessage placeholder = new ReusableTextResolverMessage()
+				.set("Request {} failed: {}", "4b1f0c2e", throwable);
+
+		// Then
+		Assertions.assertThat(unrolled.getFormattedMessage())
+				.isEqualTo("Request 4b1f0c2e failed");
+		Assertions.assertThat(unrolled.getParameterCount())
+				.isEqualTo((short) 1);
+		Assertions.assertThat(unrolled.getThrowable())
+				.isSameAs(throwable);
+		Assertions.assertThat(varargs.getFormattedMessage())
+				.isEqualTo("Request 4b1f0c2e failed after 1234 ms");
+		Assertions.assertThat(varargs.getThrowable())
+				.isSameAs(throwable);
+		Assertions.assertThat(parameters)
+				.containsExactly("4b1f0c2e", 1234L, throwable);
+		Assertions.assertThat(placeholder.getFormattedMessage())
+				.isEqualTo("Request 4b1f0c2e failed: java.lang.IllegalStateException: boom");
+		Assertions.assertThat(placeholder.getThrowable())
+				.isNull();
+	}
+
+	@Test
+	void set_capturesVarargsWithoutCopying() {
+		// Given
+		Object[] parameters = new Object[]{1, 2, 3, 4, 5};
+		ReusableTextResolverMessage message = new ReusableTextResolverMessage();
+
+		// When
+		message.set("{}{}{}{}{}", parameters);
+		parameters[0] = 0;
+
+		// Then
+		Assertions.assertThat(message.getFormattedMessage())
+				.isEqualTo("02345");
+	}
+
+	@Test
+	void clear_releasesReferences() {
+		// Given
+		Throwable throwable = new IllegalStateException();
+		ReusableTextResolverMessage message = new ReusableTextResolverMessage()
+				.set("{}", "value")
+				.withThrowable(throwable);
+
+		// When
+		Throwable throwableBeforeClear = message.getThrowable();
+		message.clear();
+
+		// Then
+		Assertions.assertThat(throwableBeforeClear)
+				.isSameAs(throwable);
+		Assertions.assertThat(message.getFormat())
+				.isNull();
+		Assertions.assertThat(message.getParameterCount())
+				.isEqualTo((short) 0);
+		Assertions.assertThat(message.getThrowable())
+				.isNull();
+	}
+
+	@Test
+	void memento_isIndependentFromMessage() {
+		// Given
+		ReusableTextResolverMessage message = new ReusableTextResolverMessage()
+				.set("{} {}", "first", "call");
+
+		// When
+		ReusableMessage memento = message.memento();
+		message.set("{}", "second");
+
+		// Then
+		Assertions.assertThat(memento.getFormattedMessage())
+				.isEqualTo("first call");
+		Assertions.assertThat(message.getFormattedMessage())
+				.isEqualTo("second");
+	}
+
+	@Test
+	void swapParameters_handsOverParameters() {
+		// Given
+		Object[] replacement = new Object[2];
+		ReusableTextResolverMessage message = new ReusableTextResolverMessage()
+				.set("{} {}", "a", "b");
+
+		// When
+		short parameterCount = message.getParameterCount();
+		Object[] parameters = message.swapParameters(replacement);
+		message.set("{} {}", "c", "d");
+
+		// Then
+		// the returned array may be longer than the number of parameters
+		Assertions.assertThat(Arrays.copyOf(parameters, parameterCount))
+				.containsExactly("a", "b");
+		Assertions.assertThat(replacement)
+				.containsExactly("c", "d");
+		Assertions.assertThat(message.getParameterCount())
+				.isEqualTo((short) 2);
+	}
+
+	@Test
+	void swapParameters_reusesLongerReplacement() {
+		// Given
+		Object[] replacement = new Object[8];
+		ReusableTextResolverMessage message = new ReusableTextResolverMessage()
+				.set("{} {}", "a", "b");
+
+		// When
+		message.swapParameters(replacement);
+		message.set("{} {} {}", "c", "d", "e");
+
+		// Then
+		Assertions.assertThat(replacement)
+				.containsExactly("c", "d", "e", null, null, null, null, null);
+		Assertions.assertThat(message.getParameterCount())
+				.isEqualTo((short) 3);
+		Assertions.assertThat(message.getParameters())
+				.containsExactly("c", "d", "e");
+		Assertions.assertThat(message.getFormattedMessage())
+				.isEqualTo("c d e");
+	}
+
+	@Test
+	void newMessage_reusesMessageOfThread() {
+		// Given
+		ReusableTextResolverMessage message1 = ReusableMessageFactory.newMessage("{}", "first");
+		ReusableMessageFactory.release(message1);
+
+		// When
+		ReusableTextResolverMessage message2 = ReusableMessageFactory.newMessage("{}", "second");
+		ReusableTextResolverMessage message3 = ReusableMessageFactory.newMessage("{}", "nested");
+
+		// Then
+		Assertions.assertThat(message2)
+				.isSameAs(message1);
+		Assertions.assertThat(message3)
+				.isNotSameAs(message2);
+		Assertions.assertThat(message2.getFormattedMessage())
+				.isEqualTo("second");
+		Assertions.assertThat(message3.getFormattedMessage())
+				.isEqualTo("nested");
+		ReusableMessageFactory.release(message3);
+		ReusableMessageFactory.release(message2);
+	}
+
+	@Test
+	void newMessage_failsWithNullPattern() {
+		// Given
+		ReusableTextResolverMessage message1 = ReusableMessageFactory.newMessage("{}", "first");
+		ReusableMessageFactory.release(message1);
+
+		// When
+		Throwable throwable = Assertions.catchThrowable(() ->
+				ReusableMessageFactory.newMessage(null, "value")
+		);
+		ReusableTextResolverMessage message2 = ReusableMessageFactory.newMessage("{}", "second");
+
+		// Then
+		Assertions.assertThat(throwable)
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Message template cannot be null.");
+		Assertions.assertThat(message2)
+				.isSameAs(message1);
+		ReusableMessageFactory.release(message2);
+	}
+
+}